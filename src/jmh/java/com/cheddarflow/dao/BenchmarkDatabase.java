@@ -0,0 +1,143 @@
+package com.cheddarflow.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Calendar;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * In-memory H2 database in MySQL mode holding the tables from {@code benchmark-schema.sql}. While open, every DAO in
+ * this package runs on it instead of {@link com.cheddarflow.jdbc.JdbcTemplates}.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String URL = "jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+      + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+    private static final int MAX_CONNECTIONS = 32;
+
+    private final JdbcConnectionPool pool;
+    private final JdbcTemplate template;
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder batchedRows = new LongAdder();
+
+    BenchmarkDatabase(String name) {
+        this.pool = JdbcConnectionPool.create(String.format(URL, name), "sa", "");
+        this.pool.setMaxConnections(MAX_CONNECTIONS);
+        this.template = new JdbcTemplate((DataSource)this.wrap(DataSource.class, this.pool));
+        for (String statement : readSchema().split(";")) {
+            final String sql = statement.replaceAll("(?m)^--.*$", "").trim();
+            if (!sql.isEmpty())
+                this.template.execute(sql);
+        }
+        JdbcTemplateSource.override(readOnly -> this.template);
+    }
+
+    /**
+     * @return the statements executed so far, a batch counting once, as it does on MySQL with rewritten batches
+     */
+    long getStatementCount() {
+        return this.statements.sum();
+    }
+
+    /**
+     * @return the rows added to batches so far, one round-trip each on MySQL unless the driver rewrites batches
+     */
+    long getBatchedRowCount() {
+        return this.batchedRows.sum();
+    }
+
+    JdbcTemplate getTemplate() {
+        return this.template;
+    }
+
+    void truncate(String... tables) {
+        for (String table : tables)
+            this.template.execute("truncate table " + table);
+    }
+
+    void addSectors(String[] symbols) {
+        for (int i = 0; i < symbols.length; i++)
+            this.template.update("insert into sectors (symbol, subsector) values (?, ?)", symbols[i], "Subsector" + i % 11);
+    }
+
+    @Override
+    public void close() {
+        JdbcTemplateSource.override(null);
+        this.template.execute("shutdown");
+        this.pool.dispose();
+    }
+
+    static ThreadPoolTaskExecutor newExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setThreadNamePrefix("benchmark-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * @return 09:30 today, so the generated flow falls in the windows the DAOs treat as live
+     */
+    static long getSessionStart() {
+        final Calendar c = Calendar.getInstance();
+        c.set(Calendar.HOUR_OF_DAY, 9);
+        c.set(Calendar.MINUTE, 30);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        return c.getTimeInMillis();
+    }
+
+    /**
+     * Proxies JDBC objects down to statements to count statement executions, and so that Connector/J's streaming
+     * fetch size of {@link Integer#MIN_VALUE}, which H2 rejects, leaves the default fetch size in place.
+     */
+    private Object wrap(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(BenchmarkDatabase.class.getClassLoader(), new Class<?>[] { type },
+          (proxy, method, args) -> {
+              if ("setFetchSize".equals(method.getName()) && (Integer)args[0] == Integer.MIN_VALUE)
+                  return null;
+              if (target instanceof Statement && method.getName().startsWith("execute"))
+                  this.statements.increment();
+              else if (target instanceof Statement && "addBatch".equals(method.getName()))
+                  this.batchedRows.increment();
+              final Object result;
+              try {
+                  result = method.invoke(target, args);
+              } catch (InvocationTargetException e) {
+                  throw e.getCause();
+              }
+              final Class<?> returnType = method.getReturnType();
+              if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType)))
+                  return this.wrap(returnType, result);
+              return result;
+          });
+    }
+
+    /**
+     * Statements and batched rows sent by the measured calls of a trial, relative to the rows they wrote. Counting
+     * runs from {@link #start()} to {@link #stop(int)} around each call, outside the measured time.
+     */
+    private static String readSchema() {
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/benchmark-schema.sql")) {
+            if (in == null)
+                throw new IllegalStateException("benchmark-schema.sql is not on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
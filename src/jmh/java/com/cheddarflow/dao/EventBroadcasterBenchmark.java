@@ -0,0 +1,102 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.eventbus.GlobalEventBus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.eventbus.Subscribe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Events for {@code symbols} symbols posted through an {@link EventBroadcaster} with 1, 4 and 16 dispatcher lanes to
+ * a {@link GlobalEventBus} subscriber that spends {@code subscriberWork} CPU tokens per event. Each invocation
+ * submits a burst round-robin over the symbols and waits until every event has been posted; scores are per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventBroadcasterBenchmark {
+
+    private static final int BURST = 10000;
+
+    // registered once, since the bus has no way to remove the subscribers of earlier trials
+    private static final Subscriber SUBSCRIBER = new Subscriber();
+
+    static {
+        GlobalEventBus.register(SUBSCRIBER);
+    }
+
+    @Param({ "1", "4", "16" })
+    public int lanes;
+
+    @Param("500")
+    public int symbols;
+
+    @Param("200")
+    public long subscriberWork;
+
+    private EventBroadcaster<SymbolEvent> broadcaster;
+    private List<SymbolEvent> events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SUBSCRIBER.work = this.subscriberWork;
+        this.broadcaster = new EventBroadcaster<>("benchmark", SymbolEvent.class, e -> e.symbol, null);
+        this.broadcaster.setLanes(this.lanes);
+        this.events = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++)
+            this.events.add(new SymbolEvent("S" + i % this.symbols));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.broadcaster.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void postBurst() {
+        final long target = this.broadcaster.getPostedCount() + BURST;
+        this.broadcaster.submitAll(this.events);
+        while (this.broadcaster.getPostedCount() < target)
+            Thread.onSpinWait();
+    }
+
+    public static final class SymbolEvent {
+
+        private final String symbol;
+
+        SymbolEvent(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    public static final class Subscriber {
+
+        private volatile long work;
+
+        @Subscribe
+        public void onEvent(SymbolEvent event) {
+            Blackhole.consumeCPU(this.work);
+        }
+    }
+}
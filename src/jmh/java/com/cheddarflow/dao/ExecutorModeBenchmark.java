@@ -0,0 +1,132 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.dto.BulkWriteResult;
+import com.cheddarflow.model.DXTimeAndSale;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Throughput of concurrent requests whose blocking DAO work runs on the DAO executor, with the task pool against
+ * virtual threads limited to the same number of connections. Each request reads several symbols in parallel on the
+ * executor and joins them, the way a request handler fans out. On a JDK without virtual threads the virtual mode falls
+ * back to the pool and the two modes measure the same thing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class ExecutorModeBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param({ "pool", "virtual" })
+    public String mode;
+
+    /** Pool threads in pool mode, permits in virtual mode: the read connections available. */
+    @Param("8")
+    public int connections;
+
+    @Param("4")
+    public int symbolsPerRequest;
+
+    @Param("100")
+    public int limit;
+
+    private BenchmarkDatabase database;
+    private ThreadPoolTaskExecutor pool;
+    private DXTimeAndSaleTable timeAndSales;
+    private List<String> symbols;
+    private Date from;
+    private Date to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("executor_mode");
+        final SyntheticMarketData data = new SyntheticMarketData(42, 200, BenchmarkDatabase.getSessionStart());
+
+        this.pool = new ThreadPoolTaskExecutor();
+        this.pool.setCorePoolSize(this.connections);
+        this.pool.setMaxPoolSize(this.connections);
+        this.pool.setThreadNamePrefix("benchmark-pool-");
+        this.pool.setDaemon(true);
+        this.pool.initialize();
+
+        this.timeAndSales = new DXTimeAndSaleTable(this.pool, new LatestDateTracker());
+        if ("virtual".equals(this.mode))
+            this.timeAndSales.setDaoExecutor(DaoExecutor.virtual(this.connections, this.pool));
+        for (int i = 0; i < 100000; i += SEED_BATCH_SIZE)
+            this.timeAndSales.bulkInsert(data.next(data::nextTimeAndSale, SEED_BATCH_SIZE));
+
+        this.symbols = data.getActiveSymbols(this.symbolsPerRequest);
+        this.from = new Date(data.getSessionStart());
+        this.to = new Date(data.getTime());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.pool.shutdown();
+        this.database.close();
+    }
+
+    @Benchmark
+    public int fanOutRequest() {
+        final List<CompletableFuture<List<DXTimeAndSale>>> reads = new ArrayList<>(this.symbols.size());
+        for (String symbol : this.symbols) {
+            reads.add(CompletableFuture.supplyAsync(
+              () -> this.timeAndSales.listObjects(this.from, this.to, symbol, false, this.limit),
+              this.timeAndSales.getExecutor()));
+        }
+        int rows = 0;
+        for (CompletableFuture<List<DXTimeAndSale>> read : reads)
+            rows += read.join().size();
+        return rows;
+    }
+
+    @Benchmark
+    public BulkWriteResult chunkedInsert(Batch batch) {
+        return this.timeAndSales.bulkInsert(batch.rows.iterator(), 250);
+    }
+
+    @State(Scope.Thread)
+    public static class Batch {
+
+        private SyntheticMarketData data;
+        private List<DXTimeAndSale> rows;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // per-thread generators over the same symbols, offset in time so the threads' rows never collide
+            final long offset = TimeUnit.DAYS.toMillis(1 + Thread.currentThread().getId() % 1000);
+            this.data = new SyntheticMarketData(Thread.currentThread().getId(), 200,
+              BenchmarkDatabase.getSessionStart() + offset);
+        }
+
+        @Setup(Level.Invocation)
+        public void next() {
+            this.rows = this.data.next(this.data::nextTimeAndSale, 1000);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.MarketData;
+import com.cheddarflow.model.VolumeData;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * The row mappers as they were before they read by resolved column index: every column looked up by label on every
+ * row, and the volume columns boxed through {@code getObject}. Kept as the baseline of
+ * {@link RowMapperAllocationBenchmark}.
+ */
+final class LabelRowMappers {
+
+    private LabelRowMappers() {
+    }
+
+    static final class VolumeDataRowMapper implements RowMapper<VolumeData> {
+
+        @Override
+        public VolumeData mapRow(ResultSet rs, int rowNum) throws SQLException {
+            final VolumeData v = new VolumeData();
+            v.setId(rs.getInt("id"));
+            v.setSymbol(rs.getString("symbol"));
+            v.setDate(rs.getDate("date"));
+            v.setComments(rs.getString("comments"));
+            v.setOptionVolume(this.getInteger(rs.getObject("option_volume")));
+            v.setPuts(this.getInteger(rs.getObject("puts")));
+            v.setCalls(this.getInteger(rs.getObject("calls")));
+            v.setPctAdv(this.getDouble(rs.getObject("pct_adv")));
+            v.setTwPctAdv(this.getDouble(rs.getObject("tw_pct_adv")));
+            v.setAdv(this.getInteger(rs.getObject("adv")));
+            v.setOptionOpenInt(this.getInteger(rs.getObject("option_open_int")));
+            v.setVolumeOiPct(this.getDouble(rs.getObject("volume_oi_pct")));
+            v.setSpot(this.getDouble(rs.getObject("spot")));
+            v.setSpotChg(this.getDouble(rs.getObject("spot_chg")));
+            v.setBullishPct(this.getDouble(rs.getObject("bullish_pct")));
+            v.setNeutralPct(this.getDouble(rs.getObject("neutral_pct")));
+            v.setBearishPct(this.getDouble(rs.getObject("bearish_pct")));
+            v.setPutBidPct(this.getDouble(rs.getObject("put_bid_pct")));
+            v.setPutMidPct(this.getDouble(rs.getObject("put_mid_pct")));
+            v.setPutAskPct(this.getDouble(rs.getObject("put_ask_pct")));
+            v.setCallBidPct(this.getDouble(rs.getObject("call_bid_pct")));
+            v.setCallMidPct(this.getDouble(rs.getObject("call_mid_pct")));
+            v.setCallAskPct(this.getDouble(rs.getObject("call_ask_pct")));
+            v.setAtmIvol(this.getDouble(rs.getObject("atm_ivol")));
+            v.setAtmIvolChg(this.getDouble(rs.getObject("atm_ivol_chg")));
+            v.setOiPuts(this.getInteger(rs.getObject("oi_puts")));
+            v.setOiCalls(this.getInteger(rs.getObject("oi_calls")));
+            v.setAvgTotalPuts(this.getInteger(rs.getObject("avg_total_puts")));
+            v.setAvgTotalCalls(this.getInteger(rs.getObject("avg_total_calls")));
+            v.setTimeWeight(this.getDouble(rs.getObject("time_weight")));
+            v.setVolume(this.getDouble(rs.getObject("volume")));
+            v.setAvgVolume(this.getDouble(rs.getObject("avg_volume")));
+            v.setClose(this.getDouble(rs.getObject("close")));
+            v.setChg(this.getDouble(rs.getObject("chg")));
+            v.setAtm1(this.getDouble(rs.getObject("atm1")));
+            v.setAtm2(this.getDouble(rs.getObject("atm2")));
+            v.setOiPutsChg(this.getInteger(rs.getObject("oi_puts_chg")));
+            v.setOiCallsChg(this.getInteger(rs.getObject("oi_calls_chg")));
+            v.setPutTrades(this.getInteger(rs.getObject("put_trades")));
+            v.setCallTrades(this.getInteger(rs.getObject("call_trades")));
+            v.setPutPrem(this.getDouble(rs.getObject("put_prem")));
+            v.setCallPrem(this.getDouble(rs.getObject("call_prem")));
+            v.setBullishCPrem(this.getDouble(rs.getObject("bullish_c_prem")));
+            v.setBearishCPrem(this.getDouble(rs.getObject("bearish_c_prem")));
+            v.setBearishPPrem(this.getDouble(rs.getObject("bearish_p_prem")));
+            v.setBullishPPrem(this.getDouble(rs.getObject("bullish_p_prem")));
+            v.setNetDelta(this.getDouble(rs.getObject("net_delta")));
+            v.setNetVega(this.getDouble(rs.getObject("net_vega")));
+            v.setBullishOnAsk(this.getDouble(rs.getObject("bullish_on_ask")));
+            v.setBearishOnAsk(this.getDouble(rs.getObject("bearish_on_ask")));
+            v.setVolatility20Day(this.getDouble(rs.getObject("volatility20day")));
+            v.setVolatility60Day(this.getDouble(rs.getObject("volatility60day")));
+            v.setVolatility120Day(this.getDouble(rs.getObject("volatility120day")));
+            v.setSplitAdjClose(this.getDouble(rs.getObject("split_adj_close")));
+            v.setSplitAdjMult(this.getDouble(rs.getObject("split_adj_mult")));
+            v.setAmex(this.getInteger(rs.getObject("amex")));
+            v.setArca(this.getInteger(rs.getObject("arca")));
+            v.setBxo(this.getInteger(rs.getObject("bxo")));
+            v.setBzx(this.getInteger(rs.getObject("bzx")));
+            v.setBox(this.getInteger(rs.getObject("box")));
+            v.setCboe(this.getInteger(rs.getObject("cboe")));
+            v.setC2(this.getInteger(rs.getObject("c2")));
+            v.setEdgx(this.getInteger(rs.getObject("edgx")));
+            v.setGem(this.getInteger(rs.getObject("gem")));
+            v.setIse(this.getInteger(rs.getObject("ise")));
+            v.setMerc(this.getInteger(rs.getObject("merc")));
+            v.setMiax(this.getInteger(rs.getObject("miax")));
+            v.setNom(this.getInteger(rs.getObject("nom")));
+            v.setPearl(this.getInteger(rs.getObject("pearl")));
+            v.setPhlx(this.getInteger(rs.getObject("phlx")));
+            return v;
+        }
+
+        int getInteger(Object o) {
+            return Optional.ofNullable(o).map(Integer.class::cast).orElse(0);
+        }
+
+        double getDouble(Object o) {
+            return Optional.ofNullable(o).map(Double.class::cast).orElse(0d);
+        }
+    }
+
+    static final class MarketDataRowMapper implements RowMapper<MarketData> {
+
+        @Override
+        public MarketData mapRow(ResultSet rs, int rowNum) throws SQLException {
+            final MarketData marketData = new MarketData();
+            marketData.setId(rs.getInt("id"));
+            marketData.setSentiment(Optional.ofNullable(rs.getString("sentiment")).orElse(""));
+            marketData.setSize(rs.getInt("size"));
+            marketData.setSymbol(rs.getString("symbol"));
+            marketData.setExpiry(rs.getDate("expiry"));
+            marketData.setStrike(rs.getFloat("strike"));
+            marketData.setType(Optional.ofNullable(rs.getString("type")).orElse(""));
+            marketData.setPrice(rs.getFloat("price"));
+            marketData.setOptionType(rs.getString("pc"));
+            marketData.setSide(rs.getInt("side"));
+            marketData.setExch(rs.getString("exch"));
+            marketData.setTimestamp(rs.getTimestamp("timestamp"));
+            marketData.setVolume(rs.getInt("volume"));
+            marketData.setCondition(Optional.ofNullable(rs.getString("cond")).orElse(""));
+            marketData.setThirdFriday(Optional.ofNullable(rs.getObject("thirdfriday"))
+              .map(Boolean.class::cast).orElse(false));
+            marketData.setIvol(rs.getDouble("ivol"));
+            marketData.setIvolChg(rs.getDouble("ivolchg"));
+            marketData.setIvolChgPct(Optional.ofNullable(rs.getObject("ivolchgpct")).map(Double.class::cast)
+              .orElse(0.0d));
+            marketData.setDelta(rs.getDouble("delta"));
+            marketData.setDeltaDollar(rs.getDouble("deltadollar"));
+            marketData.setSpot(rs.getDouble("spot"));
+            marketData.setSpotChg(rs.getDouble("spotchg"));
+            marketData.setVega(rs.getDouble("vega"));
+            marketData.setVegaDollar(rs.getDouble("vegadollar"));
+            marketData.setTheta(rs.getDouble("theta"));
+            marketData.setEvents(rs.getString("events"));
+            marketData.setBidPrice(rs.getDouble("bidprice"));
+            marketData.setBidSize(rs.getDouble("bidsize"));
+            marketData.setAskPrice(rs.getDouble("askprice"));
+            marketData.setAskSize(rs.getDouble("asksize"));
+            marketData.setNotional(rs.getDouble("notional"));
+            marketData.setOi(rs.getDouble("oi"));
+            marketData.setOutOfMoney(Optional.ofNullable(rs.getObject("otm")).map(Boolean.class::cast)
+              .orElse(false));
+            marketData.setSubsector(Optional.ofNullable(rs.getString("subsector")).orElse(""));
+            marketData.setSection(Optional.ofNullable(rs.getString("section")).orElse(""));
+            marketData.setSector("");
+            marketData.setUnusual(Optional.ofNullable(rs.getObject("unusual")).map(Boolean.class::cast)
+              .orElse(false));
+            marketData.setHighlyUnusual(Optional.ofNullable(rs.getObject("highlyunusual")).map(Boolean.class::cast)
+              .orElse(false));
+            return marketData;
+        }
+    }
+}
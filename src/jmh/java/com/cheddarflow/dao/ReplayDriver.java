@@ -0,0 +1,506 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.metrics.Histogram;
+import com.cheddarflow.model.DXTimeAndSale;
+import com.cheddarflow.model.MarketDataInput;
+import com.cheddarflow.model.TiingoIEXEvent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Replays a synthetic session through the DAO write paths: trades one at a time through
+ * {@link TradesDAO#submitMarketData}, time and sales and IEX events through their bulk inserts. Each stream runs on its
+ * own thread from its own seeded generator, so a seed always replays the same records. The rate of each stream starts
+ * at {@code openBurst} times its base rate and decays towards it, with spikes of {@code spikeBurst} times at a fixed
+ * interval. Paced runs keep the session clock at {@code speed} times wall-clock; flat-out runs write as fast as the
+ * DAOs accept.
+ */
+final class ReplayDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayDriver.class);
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+
+    private final Options options;
+    private final TradesDAO trades;
+    private final DXTimeAndSaleDAO timeAndSales;
+    private final TiingoIEXEventDAO events;
+    private final Map<String, IntSupplier> gauges = new LinkedHashMap<>();
+    private final Map<String, LongSupplier> counters = new LinkedHashMap<>();
+    private volatile boolean stopped;
+
+    ReplayDriver(Options options, TradesDAO trades, DXTimeAndSaleDAO timeAndSales, TiingoIEXEventDAO events) {
+        this.options = options;
+        this.trades = trades;
+        this.timeAndSales = timeAndSales;
+        this.events = events;
+    }
+
+    /**
+     * Samples a queue depth every 100ms while replaying.
+     */
+    void addGauge(String name, IntSupplier depth) {
+        this.gauges.put(name, depth);
+    }
+
+    /**
+     * Reports a counter's increase over the replay.
+     */
+    void addCounter(String name, LongSupplier counter) {
+        this.counters.put(name, counter);
+    }
+
+    void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * Replays into an in-memory H2 database, or with {@code --database jdbc} into the database the configured
+     * JdbcTemplates point at, and prints the report. See {@link Options#parse(String[])} for the options.
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        final Options o = Options.parse(args);
+        final BenchmarkDatabase database = "h2".equals(o.database) ? new BenchmarkDatabase("replay") : null;
+        if (database != null)
+            database.addSectors(new SyntheticMarketData(o.seed, o.symbols, o.sessionStart).getSymbols());
+
+        final ThreadPoolTaskExecutor executor = BenchmarkDatabase.newExecutor();
+        final LatestDateTracker latestDates = new LatestDateTracker();
+        final TradesTable trades = new TradesTable(executor, new SubsectorCache());
+        final DXTimeAndSaleTable timeAndSales = new DXTimeAndSaleTable(executor, latestDates);
+        final TiingoIEXEventTable events = new TiingoIEXEventTable(executor, new DailyCloseTable(new HolidayWindowTable()),
+          latestDates);
+        final DaoExecutor daoExecutor = o.virtualThreads > 0 ? DaoExecutor.virtual(o.virtualThreads, executor) : null;
+        if (o.writeBehindBatchSize > 0)
+            trades.enableWriteBehind(o.writeBehindBatchSize * 20, o.writeBehindBatchSize, Backpressure.BLOCK);
+
+        final ReplayDriver driver = new ReplayDriver(o, trades, timeAndSales, events);
+        driver.addGauge("trades.writeBehind", trades::getWriteBehindDepth);
+        for (AbstractDAO<?> dao : Arrays.<AbstractDAO<?>>asList(trades, timeAndSales, events)) {
+            final String name = dao.getClass().getSimpleName();
+            final EventBroadcaster<?> broadcaster = dao.getBroadcaster();
+            broadcaster.setLanes(o.lanes);
+            if (daoExecutor != null)
+                dao.setDaoExecutor(daoExecutor);
+            driver.addGauge(name + ".broadcast", broadcaster::getQueueDepth);
+            driver.addCounter(name + ".broadcast.posted", broadcaster::getPostedCount);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(driver::stop));
+
+        try {
+            final Report report = driver.run();
+            System.out.print(report);
+            if (o.json != null) {
+                Files.write(Paths.get(o.json), report.toJson().getBytes(StandardCharsets.UTF_8));
+            } else {
+                System.out.println(report.toJson());
+            }
+        } finally {
+            trades.disableWriteBehind();
+            executor.shutdown();
+            if (database != null)
+                database.close();
+        }
+    }
+
+    Report run() throws InterruptedException {
+        final Map<String, Histogram> depths = new LinkedHashMap<>();
+        this.gauges.keySet().forEach(name -> depths.put(name, new Histogram()));
+        final Map<String, Long> counterStarts = new LinkedHashMap<>();
+        this.counters.forEach((name, counter) -> counterStarts.put(name, counter.getAsLong()));
+
+        final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "replay-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> this.gauges.forEach((name, gauge) -> depths.get(name).record(gauge.getAsInt())),
+          0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        final List<Stream<?>> streams = new ArrayList<>();
+        if (this.options.tradesRate > 0)
+            streams.add(this.tradesStream());
+        if (this.options.timeAndSalesRate > 0)
+            streams.add(this.timeAndSalesStream());
+        if (this.options.iexRate > 0)
+            streams.add(this.iexStream());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, streams.size()));
+        final long started = System.nanoTime();
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            streams.forEach(stream -> futures.add(executor.submit(stream::replay)));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    this.stopped = true;
+                    throw new IllegalStateException("Replay failed", e.getCause());
+                }
+            }
+            for (Stream<?> stream : streams)
+                stream.awaitPending();
+        } finally {
+            executor.shutdownNow();
+            sampler.shutdownNow();
+        }
+
+        final Map<String, Long> counted = new LinkedHashMap<>();
+        this.counters.forEach((name, counter) -> counted.put(name, counter.getAsLong() - counterStarts.get(name)));
+        return new Report(this.options, System.nanoTime() - started, streams, depths, counted);
+    }
+
+    private Stream<MarketDataInput> tradesStream() {
+        return new Stream<MarketDataInput>("trades", 0, this.options.tradesRate, 1) {
+
+            private final List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+
+            @Override
+            MarketDataInput next() {
+                return this.data.nextMarketDataInput();
+            }
+
+            @Override
+            void write(List<MarketDataInput> batch) {
+                for (MarketDataInput in : batch) {
+                    final long start = System.nanoTime();
+                    final CompletableFuture<Boolean> future = ReplayDriver.this.trades.submitMarketData(in)
+                      .whenComplete((written, e) -> {
+                          this.latency.record(System.nanoTime() - start);
+                          if (e != null)
+                              this.failures.incrementAndGet();
+                      });
+                    if (!future.isDone())
+                        this.pending.add(future);
+                }
+                this.pending.removeIf(CompletableFuture::isDone);
+            }
+
+            @Override
+            void awaitPending() {
+                this.pending.forEach(future -> future.handle((written, e) -> null).join());
+            }
+        };
+    }
+
+    private Stream<DXTimeAndSale> timeAndSalesStream() {
+        return new Stream<DXTimeAndSale>("time_and_sale", 1, this.options.timeAndSalesRate, this.options.batchSize) {
+
+            @Override
+            DXTimeAndSale next() {
+                return this.data.nextTimeAndSale();
+            }
+
+            @Override
+            void write(List<DXTimeAndSale> batch) {
+                this.timed(batch, ReplayDriver.this.timeAndSales::bulkInsert);
+            }
+        };
+    }
+
+    private Stream<TiingoIEXEvent> iexStream() {
+        return new Stream<TiingoIEXEvent>("tiingo_iex_data", 2, this.options.iexRate, this.options.batchSize) {
+
+            @Override
+            TiingoIEXEvent next() {
+                return this.data.nextTiingoIEXEvent();
+            }
+
+            @Override
+            void write(List<TiingoIEXEvent> batch) {
+                this.timed(batch, ReplayDriver.this.events::bulkInsert);
+            }
+        };
+    }
+
+    /**
+     * @return the rate multiplier {@code elapsed} milliseconds into the session
+     */
+    double getBurst(long elapsed) {
+        final Options o = this.options;
+        if (o.spikeIntervalMillis > 0 && elapsed % o.spikeIntervalMillis < o.spikeLengthMillis)
+            return Math.max(o.spikeBurst, 1);
+        final double decay = o.openDecayMillis > 0 ? Math.exp(-(double)elapsed / o.openDecayMillis) : 0;
+        return 1 + (Math.max(o.openBurst, 1) - 1) * decay;
+    }
+
+    /**
+     * One record type replayed from its own generator on its own thread.
+     */
+    private abstract class Stream<T> {
+
+        final String name;
+        final SyntheticMarketData data;
+        final double baseRate;
+        final int batchSize;
+        final Histogram latency = new Histogram();
+        final AtomicLong failures = new AtomicLong();
+        long records;
+        long batches;
+        long maxLagMillis;
+
+        Stream(String name, int stream, double baseRate, int batchSize) {
+            this.name = name;
+            this.data = new SyntheticMarketData(ReplayDriver.this.options.seed + stream, ReplayDriver.this.options.symbols,
+              ReplayDriver.this.options.sessionStart);
+            this.baseRate = baseRate;
+            this.batchSize = batchSize;
+        }
+
+        abstract T next();
+
+        abstract void write(List<T> batch);
+
+        void awaitPending() {
+        }
+
+        void timed(List<T> batch, Consumer<List<T>> insert) {
+            final long start = System.nanoTime();
+            try {
+                insert.accept(batch);
+            } catch (RuntimeException e) {
+                this.failures.incrementAndGet();
+                logger.warn("Could not write {} {} rows", batch.size(), this.name, e);
+            }
+            this.latency.record(System.nanoTime() - start);
+        }
+
+        void replay() {
+            final Options o = ReplayDriver.this.options;
+            final long sessionStart = this.data.getSessionStart();
+            final long sessionEnd = sessionStart + o.durationMillis;
+            final long wallStart = System.nanoTime();
+            List<T> batch = new ArrayList<>(this.batchSize);
+            long batchStart = sessionStart;
+
+            while (!ReplayDriver.this.stopped) {
+                final long elapsed = this.data.getTime() - sessionStart;
+                final double rate = this.baseRate * ReplayDriver.this.getBurst(elapsed);
+                this.data.setMeanGap(Math.max(1, Math.round(1_000_000 / rate)), TimeUnit.MICROSECONDS);
+                final T record = this.next();
+                final long time = this.data.getTime();
+                if (time >= sessionEnd)
+                    break;
+
+                if (o.paced) {
+                    final long lag = this.pace(wallStart, time - sessionStart, o.speed);
+                    this.maxLagMillis = Math.max(this.maxLagMillis, lag);
+                }
+                if (batch.isEmpty())
+                    batchStart = time;
+                batch.add(record);
+                if (batch.size() >= this.batchSize || time - batchStart >= o.maxBatchDelayMillis) {
+                    this.flush(batch);
+                    batch = new ArrayList<>(this.batchSize);
+                }
+            }
+            if (!batch.isEmpty())
+                this.flush(batch);
+        }
+
+        private void flush(List<T> batch) {
+            this.write(batch);
+            this.records += batch.size();
+            this.batches++;
+        }
+
+        /**
+         * Sleeps until the wall clock reaches the session time.
+         *
+         * @return how far behind the session time the wall clock already was, in milliseconds
+         */
+        private long pace(long wallStart, long sessionElapsed, double speed) {
+            final long target = wallStart + (long)(TimeUnit.MILLISECONDS.toNanos(sessionElapsed) / speed);
+            final long now = System.nanoTime();
+            if (target > now) {
+                LockSupport.parkNanos(target - now);
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis(now - target);
+        }
+    }
+
+    static final class Options {
+
+        long seed = 42;
+        int symbols = 500;
+        long sessionStart = BenchmarkDatabase.getSessionStart();
+        long durationMillis = TimeUnit.MINUTES.toMillis(5);
+        /** Normal records per second of each stream; zero leaves the stream out. */
+        double tradesRate = 200;
+        double timeAndSalesRate = 2000;
+        double iexRate = 4000;
+        double openBurst = 30;
+        long openDecayMillis = TimeUnit.MINUTES.toMillis(2);
+        double spikeBurst = 50;
+        long spikeIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+        long spikeLengthMillis = TimeUnit.SECONDS.toMillis(2);
+        int batchSize = 500;
+        long maxBatchDelayMillis = 100;
+        boolean paced;
+        double speed = 1;
+        /** h2 for an in-memory database, jdbc for the configured JdbcTemplates. */
+        String database = "h2";
+        int lanes = 1;
+        /** Batch size of the trades write-behind queue; zero writes trades synchronously. */
+        int writeBehindBatchSize;
+        /** Permits of a virtual-thread DaoExecutor; zero keeps the task executor. */
+        int virtualThreads;
+        String json;
+
+        /**
+         * Reads {@code --seed}, {@code --symbols}, {@code --minutes} of session, the per-stream base rates
+         * {@code --trades-rate}, {@code --time-and-sales-rate} and {@code --iex-rate}, the burst shape
+         * {@code --open-burst}, {@code --open-decay-seconds}, {@code --spike-burst}, {@code --spike-interval-seconds} and
+         * {@code --spike-length-seconds}, {@code --batch-size}, {@code --paced} with {@code --speed}, {@code --database},
+         * broadcaster {@code --lanes}, the trades {@code --write-behind} batch size, {@code --virtual-threads} permits
+         * and a {@code --json} output file.
+         */
+        static Options parse(String[] args) {
+            final Options o = new Options();
+            for (int i = 0; i < args.length; i++) {
+                final String arg = args[i];
+                if ("--paced".equals(arg)) {
+                    o.paced = true;
+                    continue;
+                }
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                final String value = args[++i];
+                switch (arg) {
+                    case "--seed": o.seed = Long.parseLong(value); break;
+                    case "--symbols": o.symbols = Integer.parseInt(value); break;
+                    case "--minutes": o.durationMillis = TimeUnit.MINUTES.toMillis(Long.parseLong(value)); break;
+                    case "--trades-rate": o.tradesRate = Double.parseDouble(value); break;
+                    case "--time-and-sales-rate": o.timeAndSalesRate = Double.parseDouble(value); break;
+                    case "--iex-rate": o.iexRate = Double.parseDouble(value); break;
+                    case "--open-burst": o.openBurst = Double.parseDouble(value); break;
+                    case "--open-decay-seconds": o.openDecayMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value)); break;
+                    case "--spike-burst": o.spikeBurst = Double.parseDouble(value); break;
+                    case "--spike-interval-seconds":
+                        o.spikeIntervalMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                        break;
+                    case "--spike-length-seconds": o.spikeLengthMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(value)); break;
+                    case "--batch-size": o.batchSize = Integer.parseInt(value); break;
+                    case "--speed": o.speed = Double.parseDouble(value); break;
+                    case "--database": o.database = value; break;
+                    case "--lanes": o.lanes = Integer.parseInt(value); break;
+                    case "--write-behind": o.writeBehindBatchSize = Integer.parseInt(value); break;
+                    case "--virtual-threads": o.virtualThreads = Integer.parseInt(value); break;
+                    case "--json": o.json = value; break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return o;
+        }
+    }
+
+    static final class Report {
+
+        private final Options options;
+        private final long wallNanos;
+        private final List<Stream<?>> streams;
+        private final Map<String, Histogram> depths;
+        private final Map<String, Long> counters;
+
+        private Report(Options options, long wallNanos, List<Stream<?>> streams, Map<String, Histogram> depths,
+          Map<String, Long> counters) {
+            this.options = options;
+            this.wallNanos = wallNanos;
+            this.streams = streams;
+            this.depths = depths;
+            this.counters = counters;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder b = new StringBuilder();
+            b.append(String.format(Locale.ROOT, "Replayed %s session minutes in %.1fs (%s, seed %d)%n",
+              TimeUnit.MILLISECONDS.toMinutes(this.options.durationMillis), this.wallNanos / 1e9,
+              this.options.paced ? "paced at " + this.options.speed + "x" : "flat-out", this.options.seed));
+            b.append(String.format(Locale.ROOT, "%-16s %10s %9s %12s %10s %10s %10s %10s %8s%n", "stream", "records",
+              "batches", "records/s", "p50 ms", "p99 ms", "max ms", "lag ms", "failed"));
+            for (Stream<?> s : this.streams) {
+                b.append(String.format(Locale.ROOT, "%-16s %10d %9d %12.0f %10.2f %10.2f %10.2f %10d %8d%n", s.name,
+                  s.records, s.batches, s.records / (this.wallNanos / 1e9), millis(s.latency.getValueAtPercentile(50)),
+                  millis(s.latency.getValueAtPercentile(99)), millis(s.latency.getMax()), s.maxLagMillis,
+                  s.failures.get()));
+            }
+            if (!this.depths.isEmpty()) {
+                b.append(String.format(Locale.ROOT, "%-36s %10s %10s %10s%n", "queue", "mean", "p99", "max"));
+                this.depths.forEach((name, h) -> b.append(String.format(Locale.ROOT, "%-36s %10.1f %10d %10d%n", name,
+                  h.getMean(), h.getValueAtPercentile(99), h.getMax())));
+            }
+            this.counters.forEach((name, value) -> b.append(String.format(Locale.ROOT, "%-36s %10d%n", name, value)));
+            return b.toString();
+        }
+
+        String toJson() {
+            final StringBuilder b = new StringBuilder("{");
+            b.append("\"seed\":").append(this.options.seed)
+              .append(",\"paced\":").append(this.options.paced)
+              .append(",\"speed\":").append(this.options.speed)
+              .append(",\"sessionMillis\":").append(this.options.durationMillis)
+              .append(",\"wallMillis\":").append(TimeUnit.NANOSECONDS.toMillis(this.wallNanos))
+              .append(",\"streams\":{");
+            for (int i = 0; i < this.streams.size(); i++) {
+                final Stream<?> s = this.streams.get(i);
+                b.append(i > 0 ? "," : "").append('"').append(s.name).append("\":{")
+                  .append("\"records\":").append(s.records)
+                  .append(",\"batches\":").append(s.batches)
+                  .append(",\"recordsPerSecond\":").append(Math.round(s.records / (this.wallNanos / 1e9)))
+                  .append(",\"p50Nanos\":").append(s.latency.getValueAtPercentile(50))
+                  .append(",\"p99Nanos\":").append(s.latency.getValueAtPercentile(99))
+                  .append(",\"maxNanos\":").append(s.latency.getMax())
+                  .append(",\"maxLagMillis\":").append(s.maxLagMillis)
+                  .append(",\"failures\":").append(s.failures.get())
+                  .append('}');
+            }
+            b.append("},\"queues\":{");
+            String separator = "";
+            for (Map.Entry<String, Histogram> e : this.depths.entrySet()) {
+                b.append(separator).append('"').append(e.getKey()).append("\":{")
+                  .append("\"mean\":").append(Math.round(e.getValue().getMean()))
+                  .append(",\"p99\":").append(e.getValue().getValueAtPercentile(99))
+                  .append(",\"max\":").append(e.getValue().getMax())
+                  .append('}');
+                separator = ",";
+            }
+            b.append("},\"counters\":{");
+            separator = "";
+            for (Map.Entry<String, Long> e : this.counters.entrySet()) {
+                b.append(separator).append('"').append(e.getKey()).append("\":").append(e.getValue());
+                separator = ",";
+            }
+            return b.append("}}").toString();
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
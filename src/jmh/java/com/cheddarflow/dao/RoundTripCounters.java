@@ -0,0 +1,51 @@
+package com.cheddarflow.dao;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Statements and batched rows a write benchmark sends per 1000 rows, from the counts of its {@link BenchmarkDatabase},
+ * reported next to the score of every iteration. Each measured call is bracketed with {@link #start} and
+ * {@link #stop} from invocation-level fixtures.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class RoundTripCounters {
+
+    private long statements;
+    private long batchedRows;
+    private long rows;
+    private BenchmarkDatabase database;
+    private long startStatements;
+    private long startBatchedRows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        this.statements = 0;
+        this.batchedRows = 0;
+        this.rows = 0;
+    }
+
+    public double statementsPer1000Rows() {
+        return this.rows == 0 ? 0d : this.statements * 1000d / this.rows;
+    }
+
+    public double batchedRowsPer1000Rows() {
+        return this.rows == 0 ? 0d : this.batchedRows * 1000d / this.rows;
+    }
+
+    void start(BenchmarkDatabase database) {
+        this.database = database;
+        this.startStatements = database.getStatementCount();
+        this.startBatchedRows = database.getBatchedRowCount();
+    }
+
+    void stop(int rows) {
+        this.statements += this.database.getStatementCount() - this.startStatements;
+        this.batchedRows += this.database.getBatchedRowCount() - this.startBatchedRows;
+        this.rows += rows;
+    }
+}
@@ -0,0 +1,182 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.MarketData;
+import com.cheddarflow.model.VolumeData;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Per-row cost of the volume and trade mappers over an in-memory result set, by label with boxing as before
+ * ({@link LabelRowMappers}) against by resolved index with primitive accessors. Scores are per row; run with
+ * {@code -prof gc} for the allocation per row in {@code gc.alloc.rate.norm}:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RowMapperAllocationBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperAllocationBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final Set<String> VOLUME_INT_COLUMNS = Set.of("id", "option_volume", "puts", "calls", "adv",
+      "option_open_int", "oi_puts", "oi_calls", "avg_total_puts", "avg_total_calls", "oi_puts_chg", "oi_calls_chg",
+      "put_trades", "call_trades", "amex", "arca", "bxo", "bzx", "box", "cboe", "c2", "edgx", "gem", "ise", "merc",
+      "miax", "nom", "pearl", "phlx");
+    private static final Set<String> TRADE_STRING_COLUMNS = Set.of("sentiment", "symbol", "type", "pc", "exch", "cond",
+      "events", "subsector", "section");
+    private static final Set<String> TRADE_INT_COLUMNS = Set.of("id", "size", "side", "volume");
+    private static final Set<String> TRADE_FLOAT_COLUMNS = Set.of("strike", "price");
+    private static final Set<String> TRADE_BOOLEAN_COLUMNS = Set.of("thirdfriday", "otm", "unusual", "highlyunusual");
+
+    /** Share of nullable values that are SQL NULL. */
+    @Param({ "0", "0.2" })
+    public double nulls;
+
+    private SimpleResultSet volumeRows;
+    private SimpleResultSet tradeRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        this.volumeRows = newResultSet();
+        for (String column : VolumeTable.VolumeDataRowMapper.COLUMNS)
+            this.volumeRows.addColumn(column, getVolumeType(column), 0, 0);
+        for (int row = 0; row < ROWS; row++) {
+            final Object[] values = new Object[VolumeTable.VolumeDataRowMapper.COLUMNS.length];
+            for (int i = 0; i < values.length; i++)
+                values[i] = nextValue(random, getVolumeType(VolumeTable.VolumeDataRowMapper.COLUMNS[i]), this.nulls,
+                  i == 0);
+            this.volumeRows.addRow(values);
+        }
+
+        this.tradeRows = newTradeRows(random, ROWS, this.nulls);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void volumeByLabel(Blackhole blackhole) throws SQLException {
+        map(this.volumeRows, new LabelRowMappers.VolumeDataRowMapper(), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void volumeByIndex(Blackhole blackhole) throws SQLException {
+        map(this.volumeRows, new VolumeTable.VolumeDataRowMapper(), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void tradesByLabel(Blackhole blackhole) throws SQLException {
+        map(this.tradeRows, new LabelRowMappers.MarketDataRowMapper(), blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void tradesByIndex(Blackhole blackhole) throws SQLException {
+        map(this.tradeRows, new TradesTable.MarketDataRowMapper(), blackhole);
+    }
+
+    private static <T> void map(SimpleResultSet rs, RowMapper<T> mapper, Blackhole blackhole) throws SQLException {
+        // a new mapper per pass, as per query in the DAOs
+        rs.beforeFirst();
+        int rowNum = 0;
+        while (rs.next())
+            blackhole.consume(mapper.mapRow(rs, rowNum++));
+    }
+
+    /**
+     * @return rows of the trades columns, with a new instance of each string as a driver decodes them
+     */
+    static SimpleResultSet newTradeRows(Random random, int rows, double nulls) {
+        final SimpleResultSet rs = newResultSet();
+        for (String column : TradesTable.MarketDataRowMapper.COLUMNS)
+            rs.addColumn(column, getTradeType(column), 0, 0);
+        for (int row = 0; row < rows; row++) {
+            final Object[] values = new Object[TradesTable.MarketDataRowMapper.COLUMNS.length];
+            for (int i = 0; i < values.length; i++) {
+                final String column = TradesTable.MarketDataRowMapper.COLUMNS[i];
+                // the label mapper casts these through getObject, so they stay non-null as in the table
+                values[i] = nextValue(random, getTradeType(column), nulls,
+                  i == 0 || TRADE_BOOLEAN_COLUMNS.contains(column));
+            }
+            rs.addRow(values);
+        }
+        return rs;
+    }
+
+    private static SimpleResultSet newResultSet() {
+        final SimpleResultSet rs = new SimpleResultSet();
+        rs.setAutoClose(false);
+        return rs;
+    }
+
+    private static Object nextValue(Random random, int type, double nulls, boolean notNull) {
+        if (!notNull && random.nextDouble() < nulls)
+            return null;
+        switch (type) {
+            case Types.INTEGER: return random.nextInt(100000);
+            case Types.REAL: return random.nextFloat() * 500;
+            case Types.BOOLEAN: return random.nextBoolean();
+            case Types.DATE: return new Date(1700000000000L + random.nextInt(1000) * 86400000L);
+            case Types.TIMESTAMP: return new Timestamp(1700000000000L + random.nextInt(Integer.MAX_VALUE));
+            case Types.VARCHAR: return "S" + random.nextInt(500);
+            default: return random.nextDouble() * 1000;
+        }
+    }
+
+    private static int getVolumeType(String column) {
+        switch (column) {
+            case "symbol":
+            case "comments":
+                return Types.VARCHAR;
+            case "date":
+                return Types.DATE;
+            default:
+                return VOLUME_INT_COLUMNS.contains(column) ? Types.INTEGER : Types.DOUBLE;
+        }
+    }
+
+    private static int getTradeType(String column) {
+        if (TRADE_STRING_COLUMNS.contains(column))
+            return Types.VARCHAR;
+        if (TRADE_INT_COLUMNS.contains(column))
+            return Types.INTEGER;
+        if (TRADE_FLOAT_COLUMNS.contains(column))
+            return Types.REAL;
+        if (TRADE_BOOLEAN_COLUMNS.contains(column))
+            return Types.BOOLEAN;
+        if ("expiry".equals(column))
+            return Types.DATE;
+        return "timestamp".equals(column) ? Types.TIMESTAMP : Types.DOUBLE;
+    }
+}
@@ -0,0 +1,119 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.DXTimeAndSale;
+import com.cheddarflow.model.MarketData;
+import com.cheddarflow.model.TiingoIEXEvent;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Cost of the row mappers. Each table's newest rows are read once through its DAO and once by the same query with a
+ * callback that only walks the cursor; the difference between a pair is the column reads and object building of the
+ * mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param("50")
+    public int symbols;
+
+    @Param("5000")
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private TradesTable trades;
+    private DXTimeAndSaleTable timeAndSales;
+    private TiingoIEXEventTable events;
+    private Date from;
+    private Date to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("row_mapper");
+        final SyntheticMarketData data = new SyntheticMarketData(42, this.symbols, BenchmarkDatabase.getSessionStart());
+        this.database.addSectors(data.getSymbols());
+        final ThreadPoolTaskExecutor executor = BenchmarkDatabase.newExecutor();
+        this.trades = new TradesTable(executor, new SubsectorCache());
+        this.timeAndSales = new DXTimeAndSaleTable(executor, new LatestDateTracker());
+        this.events = new TiingoIEXEventTable(executor, new DailyCloseTable(new HolidayWindowTable()), new LatestDateTracker());
+
+        // side > 0 rows are the only ones getMarketData returns, about half of those generated
+        for (int i = 0; i < this.rows * 2; i++)
+            this.trades.setMarketData(data.nextMarketDataInput());
+        for (int i = 0; i < this.rows; i += SEED_BATCH_SIZE) {
+            this.timeAndSales.bulkInsert(data.next(data::nextTimeAndSale, SEED_BATCH_SIZE));
+            this.events.bulkInsert(data.next(data::nextTiingoIEXEvent, SEED_BATCH_SIZE));
+        }
+        this.from = new Date(data.getSessionStart());
+        this.to = new Date(data.getTime());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    @Benchmark
+    public List<MarketData> tradesMapped() {
+        return this.trades.getMarketData(this.from, this.to, null, this.rows);
+    }
+
+    @Benchmark
+    public int tradesScanned() {
+        return this.scan("select t.* from trades t where t.timestamp between ? and ? and t.side > ? "
+          + "order by t.timestamp desc limit " + this.rows, this.from, this.to, 0);
+    }
+
+    @Benchmark
+    public List<DXTimeAndSale> timeAndSalesMapped() {
+        return this.timeAndSales.listObjects(this.from, this.to, null, false, this.rows);
+    }
+
+    @Benchmark
+    public int timeAndSalesScanned() {
+        return this.scan("select * from time_and_sale where createdOn between ? and ? order by createdOn desc limit "
+          + this.rows, this.from, this.to);
+    }
+
+    @Benchmark
+    public List<TiingoIEXEvent> tiingoIEXEventsMapped() {
+        return this.events.listObjects(this.from, this.to, null, false, this.rows);
+    }
+
+    @Benchmark
+    public int tiingoIEXEventsScanned() {
+        return this.scan("select * from tiingo_iex_data where createdOn between ? and ? order by createdOn desc limit "
+          + this.rows, this.from, this.to);
+    }
+
+    private int scan(String sql, Object... params) {
+        final int[] count = new int[1];
+        this.database.getTemplate().query(sql, (RowCallbackHandler)rs -> count[0]++, params);
+        return count[0];
+    }
+}
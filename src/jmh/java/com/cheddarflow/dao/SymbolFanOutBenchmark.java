@@ -0,0 +1,121 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.DXTimeAndSale;
+import com.cheddarflow.model.MarketData;
+import com.cheddarflow.model.TiingoIEXEvent;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Multi-symbol range reads as one {@code in (...)} query against one query per symbol run in parallel and merged,
+ * with the fan-out threshold at 0 (off) and 2, for limited and unlimited reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SymbolFanOutBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param({ "0", "2" })
+    public int fanOutThreshold;
+
+    @Param("8")
+    public int readers;
+
+    @Param("10")
+    public int requestSymbols;
+
+    @Param("500")
+    public int limit;
+
+    private BenchmarkDatabase database;
+    private ThreadPoolTaskExecutor executor;
+    private TradesTable trades;
+    private DXTimeAndSaleTable timeAndSales;
+    private TiingoIEXEventTable events;
+    private Date from;
+    private Date to;
+    private String symbols;
+    private List<String> symbolList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("symbol_fan_out");
+        final SyntheticMarketData data = new SyntheticMarketData(42, 200, BenchmarkDatabase.getSessionStart());
+        this.database.addSectors(data.getSymbols());
+        this.executor = BenchmarkDatabase.newExecutor();
+        this.trades = new TradesTable(this.executor, new SubsectorCache());
+        this.timeAndSales = new DXTimeAndSaleTable(this.executor, new LatestDateTracker());
+        this.events = new TiingoIEXEventTable(this.executor, new DailyCloseTable(new HolidayWindowTable()),
+          new LatestDateTracker());
+        this.trades.setFanOut(this.fanOutThreshold, this.readers);
+        this.timeAndSales.setFanOut(this.fanOutThreshold, this.readers);
+        this.events.setFanOut(this.fanOutThreshold, this.readers);
+
+        for (int i = 0; i < 50000; i++)
+            this.trades.setMarketData(data.nextMarketDataInput());
+        for (int i = 0; i < 100000; i += SEED_BATCH_SIZE) {
+            this.timeAndSales.bulkInsert(data.next(data::nextTimeAndSale, SEED_BATCH_SIZE));
+            this.events.bulkInsert(data.next(data::nextTiingoIEXEvent, SEED_BATCH_SIZE));
+        }
+        this.from = new Date(data.getSessionStart());
+        this.to = new Date(data.getTime());
+        this.symbolList = data.getActiveSymbols(this.requestSymbols);
+        this.symbols = String.join(",", this.symbolList);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.trades.setFanOut(0, 0);
+        this.timeAndSales.setFanOut(0, 0);
+        this.events.setFanOut(0, 0);
+        this.executor.shutdown();
+        this.database.close();
+    }
+
+    @Benchmark
+    public List<MarketData> getMarketData() {
+        return this.trades.getMarketData(this.from, this.to, this.symbols, this.limit);
+    }
+
+    @Benchmark
+    public List<DXTimeAndSale> timeAndSales() {
+        return this.timeAndSales.listObjects(this.from, this.to, this.symbols, false, this.limit);
+    }
+
+    @Benchmark
+    public List<DXTimeAndSale> timeAndSalesUnlimited() {
+        return this.timeAndSales.listObjects(this.from, this.to, this.symbols, false, 0);
+    }
+
+    @Benchmark
+    public List<TiingoIEXEvent> tiingoIEXEvents() {
+        return this.events.listObjects(this.from, this.to, this.symbols, false, this.limit);
+    }
+
+    @Benchmark
+    public List<TiingoIEXEvent> tiingoIEXEventsUnlimited() {
+        return this.events.listObjects(this.from, this.to, this.symbolList);
+    }
+}
@@ -0,0 +1,123 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.MarketData;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Heap held by the strings of mapped trades, with the label mapper that keeps every string the driver returns
+ * ({@link LabelRowMappers}) against the trades mapper that interns them through {@link SymbolDictionary}. The result
+ * set hands out a new instance of each string, as a driver does. The String histogram of the mapped rows is
+ * reported as {@link StringHistogram}: the distinct instances and the bytes they hold per 1000 rows, counted over the
+ * dictionary-encoded fields. The scores are the time per mapped row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SymbolInterningBenchmark {
+
+    private static final int ROWS = 10000;
+
+    private static final List<Function<MarketData, String>> ENCODED_FIELDS = List.of(MarketData::getSymbol,
+      MarketData::getType, MarketData::getOptionType, MarketData::getExch, MarketData::getCondition,
+      MarketData::getSentiment, MarketData::getSubsector, MarketData::getSection);
+
+    @Param({ "plain", "interned" })
+    public String strings;
+
+    private SimpleResultSet rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.rows = RowMapperAllocationBenchmark.newTradeRows(new Random(42), ROWS, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<MarketData> mapRows(StringHistogram histogram) throws SQLException {
+        return this.map();
+    }
+
+    private List<MarketData> map() throws SQLException {
+        final RowMapper<MarketData> mapper = "interned".equals(this.strings) ? new TradesTable.MarketDataRowMapper()
+          : new LabelRowMappers.MarketDataRowMapper();
+        final List<MarketData> result = new ArrayList<>(ROWS);
+        this.rows.beforeFirst();
+        int rowNum = 0;
+        while (this.rows.next())
+            result.add(mapper.mapRow(this.rows, rowNum++));
+        return result;
+    }
+
+    /**
+     * The String histogram of one mapping of the rows, taken once per trial since the mapping is deterministic.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StringHistogram {
+
+        private double instances;
+        private double bytes;
+
+        @Setup(Level.Trial)
+        public void setUp(SymbolInterningBenchmark benchmark) throws SQLException {
+            final Set<String> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            final List<MarketData> retained = benchmark.map();
+            for (MarketData marketData : retained) {
+                for (Function<MarketData, String> field : ENCODED_FIELDS) {
+                    final String value = field.apply(marketData);
+                    if (value != null)
+                        distinct.add(value);
+                }
+            }
+            long size = 0;
+            for (String s : distinct)
+                size += getRetainedSize(s);
+            this.instances = distinct.size() * 1000d / retained.size();
+            this.bytes = size * 1000d / retained.size();
+        }
+
+        public double stringInstancesPer1000Rows() {
+            return this.instances;
+        }
+
+        public double stringBytesPer1000Rows() {
+            return this.bytes;
+        }
+    }
+
+    /**
+     * @return the bytes of a Latin-1 string and its array with compressed oops, as a heap histogram counts them
+     */
+    private static long getRetainedSize(String s) {
+        return 24 + ((16 + s.length() + 7) & ~7);
+    }
+}
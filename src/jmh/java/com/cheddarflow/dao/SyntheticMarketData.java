@@ -0,0 +1,238 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.DXTimeAndSale;
+import com.cheddarflow.model.MarketDataInput;
+import com.cheddarflow.model.TiingoEventType;
+import com.cheddarflow.model.TiingoIEXEvent;
+import com.cheddarflow.model.VolumeData;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Deterministic synthetic market data. A seed, symbol count and session start always produce the same sequence, so
+ * runs are comparable between releases. Activity is skewed towards the front of the symbol list the way real flow
+ * concentrates in a few names, and every record advances a shared clock by a random gap.
+ */
+final class SyntheticMarketData {
+
+    private static final String[] LEADERS = {
+      "SPY", "QQQ", "AAPL", "TSLA", "NVDA", "AMZN", "MSFT", "AMD", "META", "IWM", "GOOGL", "NFLX", "BABA", "BA", "F",
+      "NIO", "PLTR", "COIN", "XLF", "SOFI"
+    };
+    private static final String[] EXCHANGES = { "CBOE", "ISE", "PHLX", "AMEX", "ARCA", "MIAX", "BOX", "NOM", "GEM" };
+    private static final String[] TYPES = { "SWEEP", "BLOCK", "SPLIT" };
+    private static final String[] CONDITIONS = { "AUTO", "SLAN", "MLET", "ISOI" };
+    private static final String[] SENTIMENTS = { "BULLISH", "BEARISH", "NEUTRAL" };
+    private static final String[] EXCHANGE_CODES = { "Q", "N", "P", "Z", "K", "V", "D" };
+    private static final String[] SALE_CONDITIONS = { "", "@", "F", "I", "T" };
+    private static final String[] AGGRESSOR_SIDES = { "BUY", "SELL", "UNDEFINED" };
+    private static final TiingoEventType[] EVENT_TYPES = TiingoEventType.values();
+
+    private final Random random;
+    private final String[] symbols;
+    private final double[] spots;
+    private final long sessionStart;
+    private final String[] expiries = new String[12];
+    private long meanGapMicros = 1000;
+    private long timeMicros;
+    private int tradeId;
+    private long tradeIndex;
+
+    /**
+     * @param sessionStart the time of the first record
+     */
+    SyntheticMarketData(long seed, int symbolCount, long sessionStart) {
+        this.random = new Random(seed);
+        this.symbols = new String[symbolCount];
+        this.spots = new double[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            this.symbols[i] = i < LEADERS.length ? LEADERS[i] : String.format("SYN%04d", i);
+            this.spots[i] = 5 + this.random.nextDouble() * 495;
+        }
+        this.sessionStart = sessionStart;
+        this.timeMicros = TimeUnit.MILLISECONDS.toMicros(sessionStart);
+
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        for (int week = 0; week < this.expiries.length; week++)
+            this.expiries[week] = format.format(new Date(sessionStart + TimeUnit.DAYS.toMillis(7L * week + 3)));
+    }
+
+    String[] getSymbols() {
+        return this.symbols.clone();
+    }
+
+    /**
+     * @return the first {@code count} symbols, which carry most of the activity
+     */
+    List<String> getActiveSymbols(int count) {
+        return Arrays.asList(this.symbols).subList(0, Math.min(count, this.symbols.length));
+    }
+
+    long getSessionStart() {
+        return this.sessionStart;
+    }
+
+    long getTime() {
+        return TimeUnit.MICROSECONDS.toMillis(this.timeMicros);
+    }
+
+    /**
+     * Sets the mean gap between records; the gaps are exponentially distributed around it.
+     */
+    void setMeanGap(long gap, TimeUnit unit) {
+        this.meanGapMicros = Math.max(1, unit.toMicros(gap));
+    }
+
+    void advance(long millis) {
+        this.timeMicros += TimeUnit.MILLISECONDS.toMicros(millis);
+    }
+
+    MarketDataInput nextMarketDataInput() {
+        final int s = this.nextSymbol();
+        final double previous = this.spots[s];
+        final double spot = this.move(s);
+        final MarketDataInput in = new MarketDataInput();
+        in.tradeid = ++this.tradeId;
+        in.timestamp = this.nextTimestamp();
+        in.symbol = this.symbols[s];
+        in.side = this.random.nextInt(4) - 1;
+        in.size = 1 + (int)Math.abs(this.random.nextGaussian() * 50);
+        in.volume = in.size + this.random.nextInt(10000);
+        in.pc = this.random.nextBoolean() ? "C" : "P";
+        in.strike = (float)Math.round(spot * (0.8 + this.random.nextDouble() * 0.4));
+        in.price = (float)Math.max(0.01, Math.round(Math.abs(spot - in.strike) * 10 + this.random.nextDouble() * 500) / 100d);
+        in.expiry = pick(this.expiries);
+        in.type = pick(TYPES);
+        in.exch = pick(EXCHANGES);
+        in.condition = pick(CONDITIONS);
+        in.sentiment = pick(SENTIMENTS);
+        in.events = "";
+        in.section = "";
+        in.spot = spot;
+        in.spotchg = spot - previous;
+        in.ivol = 0.2 + this.random.nextDouble() * 0.8;
+        in.delta = this.random.nextDouble() * ("C".equals(in.pc) ? 1 : -1);
+        in.deltadollar = in.delta * spot * in.size * 100;
+        in.vega = this.random.nextDouble() * 0.5;
+        in.vegadollar = in.vega * in.size * 100;
+        in.theta = -this.random.nextDouble() * 0.2;
+        in.bidprice = Math.max(0.01, in.price - 0.05);
+        in.askprice = in.price + 0.05;
+        in.bidsize = this.random.nextInt(500);
+        in.asksize = this.random.nextInt(500);
+        in.notional = in.price * in.size * 100d;
+        in.oi = this.random.nextInt(50000);
+        in.otm = "C".equals(in.pc) ? in.strike > spot : in.strike < spot;
+        return in;
+    }
+
+    DXTimeAndSale nextTimeAndSale() {
+        final int s = this.nextSymbol();
+        final double price = Math.round(this.move(s) * 100) / 100d;
+        final Date createdOn = this.nextTimestamp();
+        return DXTimeAndSale.newBuilder()
+          .withSymbol(this.symbols[s])
+          .withIndex(++this.tradeIndex)
+          .withCreatedOn(createdOn)
+          .withReceivedOn(new Date(createdOn.getTime() + this.random.nextInt(5)))
+          .withSize(100 * (1 + this.random.nextInt(20)))
+          .withExchangeCode(pick(EXCHANGE_CODES))
+          .withPrice(price)
+          .withBidPrice(price - 0.01)
+          .withAskPrice(price + 0.01)
+          .withExchangeSaleConditions(pick(SALE_CONDITIONS))
+          .withAggressorSide(pick(AGGRESSOR_SIDES))
+          .withSpreadLeg(false)
+          .withExtendedTradingHours(false)
+          .withValidTick(true)
+          .withType("NEW")
+          .withLateSignature(false)
+          .withTradeThroughExempt("X")
+          .withSignaturePrint(this.random.nextInt(100) == 0 ? 1 : 0)
+          .build();
+    }
+
+    TiingoIEXEvent nextTiingoIEXEvent() {
+        final int s = this.nextSymbol();
+        final float mid = (float)(Math.round(this.move(s) * 100) / 100d);
+        return TiingoIEXEvent.newBuilder()
+          .withSymbol(this.symbols[s])
+          .withTiingoEventType(EVENT_TYPES[this.random.nextInt(EVENT_TYPES.length)])
+          .withCreatedOn(this.nextTimestamp())
+          .withBidSize(100 * this.random.nextInt(10))
+          .withBidPrice(mid - 0.01f)
+          .withMidPrice(mid)
+          .withAskPrice(mid + 0.01f)
+          .withAskSize(100 * this.random.nextInt(10))
+          .withLastPrice(mid)
+          .withLastSize(this.random.nextInt(500))
+          .withHalted(false)
+          .withAfterHours(false)
+          .withIntermarketSweepOrder(this.random.nextInt(10) == 0)
+          .withOddLot(this.random.nextInt(4) == 0)
+          .withSubjectToNMSRule611(false)
+          .withHash(this.random.nextInt())
+          .build();
+    }
+
+    /**
+     * @return one row per symbol for the day of {@code date}
+     */
+    List<VolumeData> nextVolumeData(Date date) {
+        final List<VolumeData> list = new ArrayList<>(this.symbols.length);
+        for (int s = 0; s < this.symbols.length; s++) {
+            final int puts = this.random.nextInt(100000 / (1 + s / 10));
+            final int calls = this.random.nextInt(100000 / (1 + s / 10));
+            final VolumeData v = new VolumeData();
+            v.setSymbol(this.symbols[s]);
+            v.setDate(date);
+            v.setPuts(puts);
+            v.setCalls(calls);
+            v.setOptionVolume(puts + calls);
+            v.setAdv(1 + this.random.nextInt(200000));
+            v.setPctAdv((puts + calls) * 100d / v.getAdv());
+            v.setSpot(this.spots[s]);
+            v.setSpotChg(this.random.nextGaussian());
+            v.setVolume(this.random.nextInt(50000000));
+            v.setAvgVolume(this.random.nextInt(50000000));
+            v.setClose(this.spots[s]);
+            v.setComments("");
+            list.add(v);
+        }
+        return list;
+    }
+
+    <T> List<T> next(Supplier<T> next, int count) {
+        final List<T> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            list.add(next.get());
+        return list;
+    }
+
+    private int nextSymbol() {
+        // squaring a uniform draw favours low indexes: the first tenth of the symbols gets about a third of the flow
+        final double u = this.random.nextDouble();
+        return (int)(u * u * this.symbols.length);
+    }
+
+    private double move(int s) {
+        this.spots[s] = Math.max(1, this.spots[s] * (1 + this.random.nextGaussian() * 0.0005));
+        return this.spots[s];
+    }
+
+    private Date nextTimestamp() {
+        this.timeMicros += Math.round(-Math.log(1 - this.random.nextDouble()) * this.meanGapMicros);
+        return new Date(TimeUnit.MICROSECONDS.toMillis(this.timeMicros));
+    }
+
+    private <T> T pick(T[] values) {
+        return values[this.random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,107 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.DXTimeAndSale;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Full-day reads of one symbol's time and sales for a closed day, from MySQL against the memory-mapped day archive.
+ * The day is seeded the same way for both tiers and archived without purge, so the two read identical rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickArchiveBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param({ "mysql", "archive" })
+    public String tier;
+
+    @Param("200")
+    public int symbols;
+
+    @Param("200000")
+    public int seedRows;
+
+    private BenchmarkDatabase database;
+    private ThreadPoolTaskExecutor executor;
+    private DXTimeAndSaleTable timeAndSales;
+    private Path directory;
+    private Date from;
+    private Date to;
+    private String symbol;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.database = new BenchmarkDatabase("tick_archive");
+        final long day = BenchmarkDatabase.getSessionStart() - TimeUnit.DAYS.toMillis(1);
+        final SyntheticMarketData data = new SyntheticMarketData(42, this.symbols, day);
+        this.executor = BenchmarkDatabase.newExecutor();
+        this.timeAndSales = new DXTimeAndSaleTable(this.executor, new LatestDateTracker());
+        for (int i = 0; i < this.seedRows; i += SEED_BATCH_SIZE)
+            this.timeAndSales.bulkInsert(data.next(data::nextTimeAndSale, SEED_BATCH_SIZE));
+
+        this.from = TradingCalendar.getDayStart(new Date(day));
+        this.to = new Date(this.from.getTime() + TimeUnit.DAYS.toMillis(1) - 1);
+        this.symbol = data.getActiveSymbols(1).get(0);
+        if ("archive".equals(this.tier)) {
+            this.directory = Files.createTempDirectory("tick-archive");
+            this.timeAndSales.enableArchive(this.directory);
+            this.timeAndSales.archiveDay(this.from, false);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.executor.shutdown();
+        this.database.close();
+        if (this.directory != null) {
+            try (Stream<Path> files = Files.walk(this.directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> {
+                    try {
+                        Files.delete(p);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+    }
+
+    @Benchmark
+    public List<DXTimeAndSale> listSymbolDay() {
+        return this.timeAndSales.listObjects(this.from, this.to, this.symbol, false, 0);
+    }
+
+    @Benchmark
+    public int streamSymbolDay() {
+        return this.timeAndSales.streamObjects(this.from, this.to, this.symbol, 0, t -> true);
+    }
+}
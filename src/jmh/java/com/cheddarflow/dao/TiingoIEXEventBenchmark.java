@@ -0,0 +1,122 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.dto.BulkWriteResult;
+import com.cheddarflow.model.TiingoIEXEvent;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TiingoIEXEventTable} bulk inserts, with and without multi-row statements, and range reads for one and for
+ * several symbols. The statements and batched rows sent per 1000 rows are reported as {@link RoundTripCounters}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TiingoIEXEventBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param("200")
+    public int symbols;
+
+    @Param("100000")
+    public int seedRows;
+
+    @Param("500")
+    public int limit;
+
+    private BenchmarkDatabase database;
+    private SyntheticMarketData data;
+    private TiingoIEXEventTable events;
+    private Date from;
+    private Date to;
+    private String symbol;
+    private List<String> symbolList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("tiingo_iex_data");
+        this.data = new SyntheticMarketData(42, this.symbols, BenchmarkDatabase.getSessionStart());
+        this.events = new TiingoIEXEventTable(BenchmarkDatabase.newExecutor(), new DailyCloseTable(new HolidayWindowTable()),
+          new LatestDateTracker());
+        for (int i = 0; i < this.seedRows; i += SEED_BATCH_SIZE)
+            this.events.bulkInsert(this.data.next(this.data::nextTiingoIEXEvent, SEED_BATCH_SIZE));
+
+        // the last ten minutes of the session, the window the quote panels read
+        this.to = new Date(this.data.getTime());
+        this.from = new Date(Math.max(this.data.getSessionStart(), this.to.getTime() - TimeUnit.MINUTES.toMillis(10)));
+        this.symbol = this.data.getActiveSymbols(1).get(0);
+        this.symbolList = this.data.getActiveSymbols(10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    @Benchmark
+    public int bulkInsert(Batch batch) {
+        this.events.setMultiRowInsert(batch.multiRowInsert);
+        return this.events.bulkInsert(batch.rows);
+    }
+
+    @Benchmark
+    public BulkWriteResult bulkInsertChunked(Batch batch) {
+        this.events.setMultiRowInsert(batch.multiRowInsert);
+        return this.events.bulkInsert(batch.rows.iterator(), Math.max(1, batch.batchSize / 4));
+    }
+
+    @Benchmark
+    public List<TiingoIEXEvent> listObjectsBySymbol() {
+        return this.events.listObjects(this.from, this.to, this.symbol, false, this.limit);
+    }
+
+    @Benchmark
+    public List<TiingoIEXEvent> listObjectsBySymbols() {
+        return this.events.listObjects(this.from, this.to, this.symbolList);
+    }
+
+    @State(Scope.Thread)
+    public static class Batch {
+
+        @Param("1000")
+        public int batchSize;
+
+        @Param({ "false", "true" })
+        public boolean multiRowInsert;
+
+        private List<TiingoIEXEvent> rows;
+        private RoundTripCounters roundTrips;
+
+        @Setup(Level.Invocation)
+        public void next(TiingoIEXEventBenchmark benchmark, RoundTripCounters roundTrips) {
+            this.rows = benchmark.data.next(benchmark.data::nextTiingoIEXEvent, this.batchSize);
+            this.roundTrips = roundTrips;
+            roundTrips.start(benchmark.database);
+        }
+
+        @TearDown(Level.Invocation)
+        public void count() {
+            this.roundTrips.stop(this.rows.size());
+        }
+    }
+}
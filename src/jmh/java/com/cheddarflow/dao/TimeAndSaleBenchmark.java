@@ -0,0 +1,118 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.dto.BulkWriteResult;
+import com.cheddarflow.model.DXTimeAndSale;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DXTimeAndSaleTable} bulk inserts, with and without multi-row statements, and range reads. Each insert
+ * invocation writes a fresh batch; the batch is generated outside the measured call. The statements and batched rows
+ * sent per 1000 rows are reported as {@link RoundTripCounters}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeAndSaleBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    @Param("200")
+    public int symbols;
+
+    @Param("100000")
+    public int seedRows;
+
+    @Param("500")
+    public int limit;
+
+    private BenchmarkDatabase database;
+    private SyntheticMarketData data;
+    private DXTimeAndSaleTable timeAndSales;
+    private Date from;
+    private Date to;
+    private String symbol;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("time_and_sale");
+        this.data = new SyntheticMarketData(42, this.symbols, BenchmarkDatabase.getSessionStart());
+        this.timeAndSales = new DXTimeAndSaleTable(BenchmarkDatabase.newExecutor(), new LatestDateTracker());
+        for (int i = 0; i < this.seedRows; i += SEED_BATCH_SIZE)
+            this.timeAndSales.bulkInsert(this.data.next(this.data::nextTimeAndSale, SEED_BATCH_SIZE));
+
+        this.from = new Date(this.data.getSessionStart());
+        this.to = new Date(this.data.getTime());
+        this.symbol = this.data.getActiveSymbols(1).get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    @Benchmark
+    public List<DXTimeAndSale> bulkInsert(Batch batch) {
+        this.timeAndSales.setMultiRowInsert(batch.multiRowInsert);
+        this.timeAndSales.bulkInsert(batch.rows);
+        return batch.rows;
+    }
+
+    @Benchmark
+    public BulkWriteResult bulkInsertChunked(Batch batch) {
+        this.timeAndSales.setMultiRowInsert(batch.multiRowInsert);
+        return this.timeAndSales.bulkInsert(batch.rows.iterator(), Math.max(1, batch.batchSize / 4));
+    }
+
+    @Benchmark
+    public List<DXTimeAndSale> listObjects() {
+        return this.timeAndSales.listObjects(this.from, this.to, this.symbol, false, this.limit);
+    }
+
+    /**
+     * The rows written by one insert invocation; the write parameters live here so the reads are not repeated for each.
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+
+        @Param("1000")
+        public int batchSize;
+
+        @Param({ "false", "true" })
+        public boolean multiRowInsert;
+
+        private List<DXTimeAndSale> rows;
+        private RoundTripCounters roundTrips;
+
+        @Setup(Level.Invocation)
+        public void next(TimeAndSaleBenchmark benchmark, RoundTripCounters roundTrips) {
+            this.rows = benchmark.data.next(benchmark.data::nextTimeAndSale, this.batchSize);
+            this.roundTrips = roundTrips;
+            roundTrips.start(benchmark.database);
+        }
+
+        @TearDown(Level.Invocation)
+        public void count() {
+            this.roundTrips.stop(this.rows.size());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.dto.Page;
+import com.cheddarflow.model.MarketData;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TradesTable} single-trade writes and range reads over a seeded session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradesBenchmark {
+
+    @Param("200")
+    public int symbols;
+
+    @Param("50000")
+    public int seedRows;
+
+    @Param("500")
+    public int limit;
+
+    private BenchmarkDatabase database;
+    private SyntheticMarketData data;
+    private TradesTable trades;
+    private Date from;
+    private Date to;
+    private String symbol;
+    private String symbolList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("trades");
+        this.data = new SyntheticMarketData(42, this.symbols, BenchmarkDatabase.getSessionStart());
+        this.database.addSectors(this.data.getSymbols());
+        this.trades = new TradesTable(BenchmarkDatabase.newExecutor(), new SubsectorCache());
+        for (int i = 0; i < this.seedRows; i++)
+            this.trades.setMarketData(this.data.nextMarketDataInput());
+
+        this.from = new Date(this.data.getSessionStart());
+        this.to = new Date(this.data.getTime());
+        this.symbol = this.data.getActiveSymbols(1).get(0);
+        this.symbolList = String.join(",", this.data.getActiveSymbols(10));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    @Benchmark
+    public boolean setMarketData() {
+        return this.trades.setMarketData(this.data.nextMarketDataInput());
+    }
+
+    @Benchmark
+    public List<MarketData> getMarketDataBySymbol() {
+        return this.trades.getMarketData(this.from, this.to, this.symbol, this.limit);
+    }
+
+    @Benchmark
+    public List<MarketData> getMarketDataBySymbols() {
+        return this.trades.getMarketData(this.from, this.to, this.symbolList, this.limit);
+    }
+
+    @Benchmark
+    public Page<MarketData> getMarketDataPage() {
+        return this.trades.getMarketDataPage(this.from, this.to, this.symbolList, this.limit, null);
+    }
+}
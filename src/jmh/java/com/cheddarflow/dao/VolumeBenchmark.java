@@ -0,0 +1,111 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.VolumeData;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link VolumeTable#persist(List)} of a full symbol universe, as inserts into a new day or as updates of the latest
+ * day, and the volume reads over the seeded days. The statements and batched rows {@code persist} sends per 1000
+ * rows are reported as {@link RoundTripCounters}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VolumeBenchmark {
+
+    @Param("2000")
+    public int symbols;
+
+    @Param("20")
+    public int seedDays;
+
+    private BenchmarkDatabase database;
+    private SyntheticMarketData data;
+    private VolumeTable volume;
+    private Date firstDay;
+    private Date lastDay;
+    private int nextDay;
+    private String symbol;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("volume");
+        this.data = new SyntheticMarketData(42, this.symbols, BenchmarkDatabase.getSessionStart());
+        this.volume = new VolumeTable(BenchmarkDatabase.newExecutor(), new LatestDateTracker());
+        for (int day = 0; day < this.seedDays; day++)
+            this.volume.persist(this.data.nextVolumeData(this.getDay(day)));
+
+        this.firstDay = this.getDay(0);
+        this.lastDay = this.getDay(this.seedDays - 1);
+        this.nextDay = this.seedDays;
+        this.symbol = this.data.getActiveSymbols(1).get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.close();
+    }
+
+    @Benchmark
+    public List<VolumeData> persist(Batch batch) {
+        this.volume.persist(batch.rows);
+        return batch.rows;
+    }
+
+    @Benchmark
+    public List<VolumeData> getVolumeDataRange() {
+        return this.volume.getVolumeData(this.firstDay, this.lastDay, false);
+    }
+
+    @Benchmark
+    public VolumeData getVolumeData() {
+        return this.volume.getVolumeData(this.lastDay, this.symbol);
+    }
+
+    private Date getDay(int day) {
+        return new Date(this.data.getSessionStart() + TimeUnit.DAYS.toMillis(day));
+    }
+
+    @State(Scope.Thread)
+    public static class Batch {
+
+        @Param({ "insert", "update" })
+        public String persistMode;
+
+        private List<VolumeData> rows;
+        private RoundTripCounters roundTrips;
+
+        @Setup(Level.Invocation)
+        public void next(VolumeBenchmark benchmark, RoundTripCounters roundTrips) {
+            final Date day = "insert".equals(this.persistMode) ? benchmark.getDay(benchmark.nextDay++) : benchmark.lastDay;
+            this.rows = benchmark.data.nextVolumeData(day);
+            this.roundTrips = roundTrips;
+            roundTrips.start(benchmark.database);
+        }
+
+        @TearDown(Level.Invocation)
+        public void count() {
+            this.roundTrips.stop(this.rows.size());
+        }
+    }
+}
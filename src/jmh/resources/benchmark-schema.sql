@@ -0,0 +1,171 @@
+-- Tables the benchmarks touch, in H2's MySQL mode. Only the columns and keys the DAOs rely on are declared.
+
+create table trades (
+  id int auto_increment primary key,
+  tradeid int not null,
+  size int,
+  symbol varchar(16) not null,
+  expiry date,
+  strike float,
+  type varchar(16),
+  price double,
+  side int,
+  exch varchar(16),
+  volume int,
+  cond varchar(32),
+  ivol double,
+  ivolchg double,
+  ivolchgpct double,
+  delta double,
+  deltadollar double,
+  spot double,
+  spotchg double,
+  vega double,
+  vegadollar double,
+  theta double,
+  bidprice double,
+  bidsize double,
+  askprice double,
+  asksize double,
+  notional double,
+  oi double,
+  sentiment varchar(16),
+  pc varchar(1),
+  thirdfriday tinyint,
+  otm tinyint,
+  events varchar(64),
+  section varchar(64),
+  subsector varchar(64),
+  timestamp timestamp(3) not null,
+  date date,
+  time double,
+  unusual boolean,
+  highlyunusual boolean
+);
+create index trades_timestamp on trades (timestamp, tradeid);
+create index trades_symbol on trades (symbol, timestamp);
+
+create table sectors (
+  symbol varchar(16) primary key,
+  subsector varchar(64)
+);
+
+create table time_and_sale (
+  id bigint auto_increment primary key,
+  symbol varchar(16) not null,
+  tradeIndex bigint not null,
+  createdOn timestamp(3) not null,
+  receivedOn timestamp(3),
+  size double,
+  exchangeCode varchar(8),
+  price double,
+  bidPrice double,
+  askPrice double,
+  exchangeSaleConditions varchar(16),
+  aggressorSide varchar(16),
+  spreadLeg tinyint,
+  extendedTradingHours tinyint,
+  validTick tinyint,
+  type varchar(16),
+  lateSignature tinyint,
+  tradeThroughExempt varchar(8),
+  signaturePrint int,
+  unique (symbol, createdOn, tradeIndex)
+);
+create index time_and_sale_createdOn on time_and_sale (createdOn);
+
+create table tiingo_iex_data (
+  id bigint auto_increment primary key,
+  symbol varchar(16) not null,
+  tiingoEventType varchar(16),
+  createdOn timestamp(3) not null,
+  bidSize int,
+  bidPrice float,
+  midPrice float,
+  askPrice float,
+  askSize int,
+  lastPrice float,
+  lastSize int,
+  halted tinyint,
+  afterHours tinyint,
+  intermarketSweepOrder tinyint,
+  oddLot tinyint,
+  subjectToNMSRule611 tinyint,
+  hash int,
+  unique (symbol, createdOn, hash)
+);
+create index tiingo_iex_data_createdOn on tiingo_iex_data (createdOn);
+
+create table volume (
+  id int auto_increment primary key,
+  symbol varchar(16) not null,
+  date date not null,
+  option_volume int,
+  puts int,
+  calls int,
+  pct_adv double,
+  tw_pct_adv double,
+  adv int,
+  option_open_int int,
+  volume_oi_pct double,
+  comments varchar(255),
+  spot double,
+  spot_chg double,
+  bullish_pct double,
+  neutral_pct double,
+  bearish_pct double,
+  put_bid_pct double,
+  put_mid_pct double,
+  put_ask_pct double,
+  call_bid_pct double,
+  call_mid_pct double,
+  call_ask_pct double,
+  atm_ivol double,
+  atm_ivol_chg double,
+  oi_puts int,
+  oi_calls int,
+  avg_total_puts int,
+  avg_total_calls int,
+  time_weight double,
+  volume double,
+  avg_volume double,
+  close double,
+  chg double,
+  atm1 double,
+  atm2 double,
+  oi_puts_chg int,
+  oi_calls_chg int,
+  put_trades int,
+  call_trades int,
+  put_prem double,
+  call_prem double,
+  bullish_c_prem double,
+  bearish_c_prem double,
+  bearish_p_prem double,
+  bullish_p_prem double,
+  net_delta double,
+  net_vega double,
+  bullish_on_ask double,
+  bearish_on_ask double,
+  volatility20day double,
+  volatility60day double,
+  volatility120day double,
+  split_adj_close double,
+  split_adj_mult double,
+  amex int,
+  arca int,
+  bxo int,
+  bzx int,
+  box int,
+  cboe int,
+  c2 int,
+  edgx int,
+  gem int,
+  ise int,
+  merc int,
+  miax int,
+  nom int,
+  pearl int,
+  phlx int,
+  unique (date, symbol)
+);
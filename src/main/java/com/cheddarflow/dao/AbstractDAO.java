@@ -1,26 +1,74 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.eventbus.GlobalEventBus;
+import com.cheddarflow.dao.dto.Page;
+import com.cheddarflow.dao.metrics.InstrumentedDAO;
+import com.cheddarflow.dao.metrics.MetricsRegistry;
 import com.cheddarflow.model.DXTimeAndSale;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 abstract class AbstractDAO<T> {
 
+    private static final int ARCHIVE_PURGE_CHUNK_SIZE = 10000;
+
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
     protected final ThreadPoolTaskExecutor taskExecutor;
 
+    private final EventBroadcaster<T> broadcaster;
+    private volatile MetricsRegistry metricsRegistry = MetricsRegistry.NOOP;
+    private volatile DaoExecutor daoExecutor;
+    private volatile int fanOutThreshold;
+    private volatile ExecutorService fanOutExecutor;
+
     protected AbstractDAO(ThreadPoolTaskExecutor taskExecutor) {
+        this(taskExecutor, null, row -> null, null);
+    }
+
+    /**
+     * @param type the row type that can be coalesced into batch events
+     * @param symbol the symbol a row's broadcasts are ordered by
+     * @param batchEvent builds the batch event posted for a run of rows
+     */
+    protected AbstractDAO(ThreadPoolTaskExecutor taskExecutor, Class<T> type, Function<T, String> symbol,
+      Function<List<T>, ?> batchEvent) {
         this.taskExecutor = taskExecutor;
+        this.broadcaster = new EventBroadcaster<>(getClass().getSimpleName(), type, symbol, batchEvent);
     }
 
     protected String getParamString(String[] strings) {
@@ -38,36 +86,377 @@ abstract class AbstractDAO<T> {
         return getParamString(strings.toArray(new String[0]));
     }
 
-    protected void broadcast(List<T> input) {
-        if (this.taskExecutor == null) {
-            throw new IllegalStateException("TaskExecutor is null");
+    protected String getParamString(int count) {
+        return count > 0 ? "?,".repeat(count - 1) + "?" : "";
+    }
+
+    /**
+     * Runs the query on a forward-only, streaming cursor and hands each mapped row to the consumer until it returns
+     * false or the rows run out, so memory use does not grow with the size of the range. A streaming result set is
+     * drained to its end when it is closed, so the statement is cancelled when the consumer stops early.
+     */
+    protected int stream(JdbcTemplate template, String sql, Object[] params, RowMapper<T> mapper,
+      Predicate<? super T> consumer) {
+        final Integer count = template.query(con -> {
+            final PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            new ArgumentPreparedStatementSetter(params).setValues(ps);
+            return ps;
+        }, rs -> {
+            int rowNum = 0;
+            while (rs.next()) {
+                if (!consumer.test(mapper.mapRow(rs, rowNum++))) {
+                    // nothing is left to drain when the stop came on the last row
+                    if (rs.next())
+                        this.cancel(rs.getStatement());
+                    break;
+                }
+            }
+            return rowNum;
+        });
+        return count == null ? 0 : count;
+    }
+
+    private void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            this.logger.debug("Could not cancel a stopped streaming query", e);
         }
-        this.taskExecutor.execute(() -> {
-            for (T in : input) {
+    }
+
+    /**
+     * Appends a keyset condition on (timestamp column, id) to the query and returns one page in descending order.
+     * Each page is a range seek on the index from the position in the token, whatever its depth.
+     */
+    protected Page<T> queryPage(JdbcTemplate template, String query, List<Object> params, String alias,
+      String timestampColumn, int pageSize, String pageToken, RowMapper<T> mapper, Function<T, Date> timestamp,
+      ToLongFunction<T> id) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+
+        final String ts = alias + "." + timestampColumn;
+        if (pageToken != null && !pageToken.isBlank()) {
+            final PageToken token = PageToken.decode(pageToken);
+            query += " and (" + ts + " < ? or (" + ts + " = ? and " + alias + ".id < ?))";
+            params.add(token.getTimestamp());
+            params.add(token.getTimestamp());
+            params.add(token.getId());
+        }
+        query += " order by " + ts + " desc, " + alias + ".id desc limit " + (pageSize + 1);
+
+        return toPage(template.query(query, mapper, params.toArray(new Object[0])), pageSize, timestamp, id);
+    }
+
+    /**
+     * Continues a keyset page into the archived closed days before {@code liveFrom} once the live rows, paged by
+     * {@code live}, have run out. Archived days are read one at a time from the newest, with the same order and tokens
+     * as the live pages, so a token may point into either tier.
+     */
+    protected Page<T> queryPage(DayArchive<T> archive, List<String> symbols, Date from, Date to, Date liveFrom,
+      Supplier<Page<T>> live, int pageSize, String pageToken, Function<T, Date> timestamp, ToLongFunction<T> id) {
+        if (liveFrom == from)
+            return live.get();
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+
+        final PageToken token = pageToken != null && !pageToken.isBlank() ? PageToken.decode(pageToken) : null;
+        final List<T> rows = new ArrayList<>(pageSize + 1);
+        if (!liveFrom.after(to) && (token == null || !token.getTimestamp().before(liveFrom))) {
+            final Page<T> page = live.get();
+            if (page.hasNext())
+                return page;
+            rows.addAll(page.getItems());
+        }
+        final Predicate<T> afterToken = token == null ? t -> true : t -> {
+            final int order = timestamp.apply(t).compareTo(token.getTimestamp());
+            return order < 0 || order == 0 && id.applyAsLong(t) < token.getId();
+        };
+        this.readArchiveNewest(archive, symbols, from, to, liveFrom, pageSize + 1,
+          Comparator.comparing(timestamp).thenComparingLong(id).reversed(), afterToken, rows);
+        return toPage(rows, pageSize, timestamp, id);
+    }
+
+    private static <T> Page<T> toPage(List<T> rows, int pageSize, Function<T, Date> timestamp, ToLongFunction<T> id) {
+        if (rows.size() <= pageSize)
+            return new Page<>(rows, null);
+
+        final List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+        final T last = items.get(pageSize - 1);
+        return new Page<>(items, new PageToken(timestamp.apply(last), id.applyAsLong(last)).encode());
+    }
+
+    /**
+     * Resolves the newest {@code column} value at or after {@code notBefore} from the tracker, falling back to the
+     * {@code max(...)} probe only when the table has no rows in the tracker's lookback.
+     */
+    protected Date getLatestDate(LatestDateTracker tracker, JdbcTemplate template, String table, String column,
+      Date notBefore) {
+        this.metricsRegistry.counter(table + ".rollback").increment();
+        final String sql = "select max(" + column + ") from " + table + " where " + column + " >= ?";
+        final Date latest = tracker.getLatest(table, () -> template.queryForObject(sql, Date.class,
+          new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7))));
+        if (latest == null)
+            return template.queryForObject(sql, Date.class, notBefore);
+        return latest.before(notBefore) ? null : latest;
+    }
+
+    /**
+     * Copies one closed day of the table into the archive, streamed in (symbol, createdOn) order from the primary, and
+     * optionally deletes the archived rows from MySQL afterwards in chunks. Only rows up to the day's highest id when
+     * the copy started are archived and purged; rows that arrive later stay in MySQL until the day is archived again.
+     * The purge is refused if MySQL no longer holds exactly the archived rows.
+     *
+     * @return the number of records archived
+     */
+    protected int archiveDay(DayArchive<T> archive, String table, Date day, boolean purge, RowMapper<T> mapper)
+      throws IOException {
+        final Date from = TradingCalendar.getDayStart(day);
+        final Date to = new Date(from.getTime() + TimeUnit.DAYS.toMillis(1));
+        if (to.after(new Date()))
+            throw new IllegalArgumentException("Only closed days can be archived: " + from);
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        final String range = " from " + table + " t where t.createdOn >= ? and t.createdOn < ? and t.id <= ?";
+        final Long maxId = template.queryForObject("select max(t.id) from " + table
+          + " t where t.createdOn >= ? and t.createdOn < ?", Long.class, from, to);
+        final long archivedMaxId = maxId == null ? 0 : maxId;
+        final int count;
+        try (DayArchive<T>.DayWriter writer = archive.newWriter(from)) {
+            this.stream(template, "select t.*" + range + " order by t.symbol, t.createdOn, t.id",
+              new Object[] { from, to, archivedMaxId }, mapper, t -> {
                 try {
-                    this.logger.debug("Broadcasting {} {}", in.getClass().getSimpleName(), in);
-                    GlobalEventBus.post(in);
-                } catch (Exception e) {
-                    this.logger.error("Unexpected error in broadcast of {} data", in.getClass().getSimpleName(), e);
+                    writer.add(t);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+                return true;
+            });
+            count = writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        this.logger.info("Archived {} {} records for {} up to id {}", count, table, from, archivedMaxId);
+
+        if (purge) {
+            final Integer present = template.queryForObject("select count(1)" + range, Integer.class, from, to,
+              archivedMaxId);
+            if (present == null || present != count) {
+                throw new IllegalStateException("Not purging " + table + " for " + from + ": " + present
+                  + " rows up to id " + archivedMaxId + " but " + count + " archived");
             }
-        });
+            int deleted;
+            int total = 0;
+            do {
+                deleted = template.update("delete from " + table + " where createdOn >= ? and createdOn < ? and id <= ? "
+                  + "limit " + ARCHIVE_PURGE_CHUNK_SIZE, from, to, archivedMaxId);
+                total += deleted;
+            } while (deleted >= ARCHIVE_PURGE_CHUNK_SIZE);
+            if (total != count)
+                this.logger.warn("Purged {} {} records for {} but archived {}", total, table, from, count);
+        }
+        return count;
+    }
+
+    /**
+     * @return where the leading run of archived closed days in [from, to] ends, and the MySQL read should start;
+     * {@code from} itself when its day is not archived
+     */
+    protected Date getArchivedUntil(DayArchive<T> archive, Date from, Date to) {
+        if (archive == null)
+            return from;
+
+        final Date today = TradingCalendar.getDayStart(new Date());
+        Date liveFrom = from;
+        for (Date day = TradingCalendar.getDayStart(from); day.before(today) && !day.after(to) && archive.contains(day); ) {
+            day = new Date(day.getTime() + TimeUnit.DAYS.toMillis(1));
+            liveFrom = day;
+        }
+        return liveFrom;
+    }
+
+    /**
+     * Reads the leading run of archived closed days in [from, to] in ascending day order and returns where the MySQL
+     * read should start; {@code from} itself when nothing was read from the archive, and a date past {@code to} if the
+     * consumer stopped.
+     */
+    protected Date readArchive(DayArchive<T> archive, List<String> symbols, Date from, Date to, Predicate<T> consumer) {
+        final Date liveFrom = this.getArchivedUntil(archive, from, to);
+        if (liveFrom == from)
+            return from;
+        for (Date day = TradingCalendar.getDayStart(from); day.before(liveFrom);
+          day = new Date(day.getTime() + TimeUnit.DAYS.toMillis(1))) {
+            if (!archive.read(day, symbols, from.getTime(), to.getTime(), consumer))
+                return new Date(Long.MAX_VALUE);
+        }
+        return liveFrom;
+    }
+
+    /**
+     * Adds the archived rows in [from, liveFrom) that pass the filter to {@code rows}, newest first, until it holds
+     * {@code limit} rows. Days are read one at a time from the newest, so at most one day is held besides the result.
+     */
+    protected void readArchiveNewest(DayArchive<T> archive, List<String> symbols, Date from, Date to, Date liveFrom,
+      int limit, Comparator<T> newestFirst, Predicate<T> filter, List<T> rows) {
+        final Date first = TradingCalendar.getDayStart(from);
+        final List<T> dayRows = new ArrayList<>();
+        for (Date day = new Date(liveFrom.getTime() - TimeUnit.DAYS.toMillis(1));
+          rows.size() < limit && !day.before(first); day = new Date(day.getTime() - TimeUnit.DAYS.toMillis(1))) {
+            dayRows.clear();
+            archive.read(day, symbols, from.getTime(), to.getTime(), t -> {
+                if (filter.test(t))
+                    dayRows.add(t);
+                return true;
+            });
+            dayRows.sort(newestFirst);
+            rows.addAll(dayRows.subList(0, Math.min(dayRows.size(), limit - rows.size())));
+        }
     }
 
-    protected void broadcast(Supplier<?> input) {
-        if (this.taskExecutor == null) {
-            throw new IllegalStateException("TaskExecutor is null");
+    /**
+     * Combines archived rows with the live rows read after them, ascending by createdOn.
+     */
+    protected List<T> mergeArchived(List<T> archived, List<T> live, Function<T, Date> createdOn) {
+        archived.sort(Comparator.comparing(createdOn));
+        archived.addAll(live);
+        return archived;
+    }
+
+    /**
+     * Reads of at least {@code threshold} symbols run as one query per symbol, in parallel on a pool of {@code readers}
+     * threads of this DAO's own, instead of one {@code in (...)} query that MySQL may plan as a scan over the whole
+     * range; a threshold of 0 turns it off. The pool only ever runs the per-symbol queries, so a caller blocked on them
+     * cannot hold up their progress whatever executor it runs on.
+     */
+    public synchronized void setFanOut(int threshold, int readers) {
+        if (threshold > 0 && readers <= 0)
+            throw new IllegalArgumentException("readers must be positive");
+        final ExecutorService previous = this.fanOutExecutor;
+        if (threshold > 0) {
+            final String name = getClass().getSimpleName() + "-fan-out-";
+            final AtomicInteger count = new AtomicInteger();
+            this.fanOutExecutor = Executors.newFixedThreadPool(readers, task -> {
+                final Thread thread = new Thread(task, name + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.fanOutExecutor = null;
         }
-        this.taskExecutor.execute(() -> {
-            final Object in = input.get();
-            if (in == null)
-                return;
-            try {
-                this.logger.debug("Broadcasting {} {}", in.getClass().getSimpleName(), in);
-                GlobalEventBus.post(in);
-            } catch (Exception e) {
-                this.logger.error("Unexpected error in broadcast of {} data", in.getClass().getSimpleName(), e);
+        this.fanOutThreshold = threshold;
+        if (previous != null)
+            previous.shutdown();
+    }
+
+    protected boolean isFanOut(List<String> symbols) {
+        final int threshold = this.fanOutThreshold;
+        return threshold > 0 && symbols != null && symbols.size() > 1 && symbols.size() >= threshold;
+    }
+
+    /**
+     * Runs the query of each symbol in parallel, the last one on the calling thread, and k-way merges the results,
+     * each newest first, into the newest {@code limit} rows, or all of them when the limit is 0.
+     */
+    protected List<T> fanOut(List<String> symbols, int limit, Function<String, List<T>> query,
+      Function<T, Date> timestamp) {
+        final Executor executor = this.fanOutExecutor;
+        final List<CompletableFuture<List<T>>> reads = new ArrayList<>(symbols.size());
+        final List<List<T>> parts = new ArrayList<>(symbols.size());
+        try {
+            for (String symbol : symbols.subList(0, symbols.size() - 1)) {
+                if (executor == null) {
+                    parts.add(query.apply(symbol));
+                } else {
+                    reads.add(CompletableFuture.supplyAsync(() -> query.apply(symbol), executor));
+                }
             }
-        });
+            parts.add(query.apply(symbols.get(symbols.size() - 1)));
+            for (CompletableFuture<List<T>> read : reads)
+                parts.add(read.join());
+        } catch (RuntimeException e) {
+            // reads still queued are skipped
+            reads.forEach(read -> read.cancel(false));
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw e;
+        }
+
+        int total = 0;
+        for (List<T> part : parts)
+            total += part.size();
+        final int size = limit > 0 ? Math.min(limit, total) : total;
+
+        // heap of the parts by their next row; a part's cursor only moves while it is out of the heap
+        final int[] cursors = new int[parts.size()];
+        final PriorityQueue<Integer> heap = new PriorityQueue<>(parts.size(),
+          Comparator.comparing((Integer i) -> timestamp.apply(parts.get(i).get(cursors[i]))).reversed());
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty())
+                heap.add(i);
+        }
+        final List<T> merged = new ArrayList<>(size);
+        while (merged.size() < size) {
+            final int i = heap.poll();
+            merged.add(parts.get(i).get(cursors[i]++));
+            if (cursors[i] < parts.get(i).size())
+                heap.add(i);
+        }
+        return merged;
+    }
+
+    /**
+     * Where internal path counters such as {@code <table>.rollback} are recorded; per-method metrics come from
+     * wrapping the DAO with {@link InstrumentedDAO}.
+     */
+    @Autowired(required = false)
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * Replaces the task executor for blocking work and the thread type of the broadcast lanes, e.g. with virtual
+     * threads.
+     */
+    @Autowired(required = false)
+    public void setDaoExecutor(DaoExecutor daoExecutor) {
+        this.daoExecutor = daoExecutor;
+        this.broadcaster.setExecutor(daoExecutor);
+    }
+
+    /**
+     * @return the {@link DaoExecutor} if one is set, else the task executor
+     */
+    protected Executor getExecutor() {
+        final DaoExecutor daoExecutor = this.daoExecutor;
+        if (daoExecutor != null)
+            return daoExecutor;
+        return this.taskExecutor != null ? this.taskExecutor : ForkJoinPool.commonPool();
+    }
+
+    public EventBroadcaster<T> getBroadcaster() {
+        return this.broadcaster;
+    }
+
+    /**
+     * Stops the broadcast lanes once the events already submitted have been posted.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.broadcaster.close();
+    }
+
+    protected void broadcast(List<T> input) {
+        this.broadcaster.submitAll(input);
+    }
+
+    /**
+     * Posts the rows as batch events, split by dispatcher lane so each symbol's rows stay in order.
+     */
+    protected void broadcastBatch(List<T> input) {
+        this.broadcaster.submitBatch(input);
+    }
+
+    protected void broadcast(String symbol, Supplier<?> input) {
+        this.broadcaster.submit(symbol, input);
     }
 }
@@ -0,0 +1,11 @@
+package com.cheddarflow.dao;
+
+public enum Backpressure {
+
+    /** Block the submitting thread until the queue has room. */
+    BLOCK,
+    /** Reject the item; its future completes exceptionally. */
+    DROP,
+    /** Write the item synchronously on the submitting thread. */
+    SPILL
+}
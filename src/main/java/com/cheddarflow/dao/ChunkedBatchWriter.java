@@ -0,0 +1,93 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.dto.BulkWriteResult;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Writes an unbounded sequence of rows as fixed-size JDBC batches. The parameters of the next chunk are marshalled
+ * on the executor while the current chunk executes on the caller thread, so at most two chunks are held in memory.
+ */
+final class ChunkedBatchWriter<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final String sql;
+    private final Function<List<T>, List<Object[]>> marshaller;
+    private final Executor executor;
+
+    ChunkedBatchWriter(String name, String sql, Function<List<T>, List<Object[]>> marshaller, Executor executor) {
+        this.name = name;
+        this.sql = sql;
+        this.marshaller = marshaller;
+        this.executor = executor == null ? ForkJoinPool.commonPool() : executor;
+    }
+
+    BulkWriteResult write(JdbcTemplate template, Iterator<T> in, int chunkSize, Consumer<List<T>> onChunk) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+
+        final long start = System.nanoTime();
+        int chunks = 0;
+        int rows = 0;
+        int updated = 0;
+        CompletableFuture<Chunk<T>> next = this.nextChunk(in, chunkSize);
+        while (next != null) {
+            final Chunk<T> chunk = next.join();
+            next = this.nextChunk(in, chunkSize);
+            if (chunk.params.isEmpty())
+                continue;
+
+            final long chunkStart = System.nanoTime();
+            final int[] num = template.batchUpdate(this.sql, chunk.params);
+            final long chunkNanos = System.nanoTime() - chunkStart;
+
+            chunks++;
+            rows += chunk.params.size();
+            updated += IntStream.of(num).sum();
+            this.logger.debug("Pushed chunk {} of {} records to {} in {} ms ({} rows/sec)", chunks, chunk.params.size(),
+              this.name, TimeUnit.NANOSECONDS.toMillis(chunkNanos), BulkWriteResult.rate(chunk.params.size(), chunkNanos));
+            if (onChunk != null)
+                onChunk.accept(chunk.items);
+        }
+
+        final BulkWriteResult result = new BulkWriteResult(chunks, rows, updated, System.nanoTime() - start);
+        this.logger.debug("Pushed {} to {}", result, this.name);
+        return result;
+    }
+
+    private CompletableFuture<Chunk<T>> nextChunk(Iterator<T> in, int chunkSize) {
+        if (!in.hasNext())
+            return null;
+        final List<T> items = new ArrayList<>(chunkSize);
+        while (in.hasNext() && items.size() < chunkSize) {
+            items.add(in.next());
+        }
+        return CompletableFuture.supplyAsync(() -> new Chunk<>(items, this.marshaller.apply(items)), this.executor);
+    }
+
+    private static final class Chunk<T> {
+
+        private final List<T> items;
+        private final List<Object[]> params;
+
+        private Chunk(List<T> items, List<Object[]> params) {
+            this.items = items;
+            this.params = params;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.cheddarflow.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Column positions for a fixed list of column labels, looked up on the first row so row mappers can use the
+ * index-based primitive accessors instead of resolving every label on every row. The positions belong to one query,
+ * so mappers holding one are created per query and never shared between threads.
+ */
+final class ColumnIndexes {
+
+    private final String[] columns;
+    private int[] indexes;
+
+    ColumnIndexes(String... columns) {
+        this.columns = columns;
+    }
+
+    int[] get(ResultSet rs) throws SQLException {
+        if (this.indexes == null) {
+            final int[] indexes = new int[this.columns.length];
+            for (int i = 0; i < this.columns.length; i++) {
+                indexes[i] = rs.findColumn(this.columns[i]);
+            }
+            this.indexes = indexes;
+        }
+        return this.indexes;
+    }
+}
@@ -1,15 +1,25 @@
 package com.cheddarflow.dao;
 
+import com.cheddarflow.dao.dto.BulkWriteResult;
+import com.cheddarflow.dao.dto.Page;
 import com.cheddarflow.model.DXTimeAndSale;
 
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface DXTimeAndSaleDAO {
 
     List<DXTimeAndSale> listObjects(Date from, Date to, String symbol, boolean rollback, int limit);
 
+    Page<DXTimeAndSale> listObjectsPage(Date from, Date to, String symbol, int pageSize, String pageToken);
+
+    int streamObjects(Date from, Date to, String symbol, int limit, Predicate<DXTimeAndSale> consumer);
+
     void bulkInsert(List<DXTimeAndSale> in);
 
+    BulkWriteResult bulkInsert(Iterator<DXTimeAndSale> in, int chunkSize);
+
     long getMaxTimestamp();
 }
@@ -1,17 +1,26 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.jdbc.JdbcTemplates;
+import com.cheddarflow.dao.dto.BulkWriteResult;
+import com.cheddarflow.dao.dto.Page;
+import com.cheddarflow.dao.event.TimeAndSaleUpdateEvent;
 import com.cheddarflow.jdbc.NoDataInRangeException;
 import com.cheddarflow.model.DXTimeAndSale;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,31 +34,79 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class DXTimeAndSaleTable extends AbstractDAO<DXTimeAndSale> implements DXTimeAndSaleDAO {
 
+    private static final String INSERT_PREFIX = "insert ignore into time_and_sale (symbol, tradeIndex, createdOn, receivedOn, "
+      + "size, exchangeCode, price, bidPrice, askPrice, exchangeSaleConditions, aggressorSide, spreadLeg, extendedTradingHours, "
+      + "validTick, type, lateSignature, tradeThroughExempt, signaturePrint) values ";
+    private static final String INSERT_SQL = INSERT_PREFIX + "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_COLUMNS = 18;
+
+    private final SymbolDictionary symbols = SymbolDictionary.getInstance();
+
     protected final RowMapper<DXTimeAndSale> rowMapper = (rs, i) -> DXTimeAndSale.newBuilder()
       .withId(rs.getLong("id"))
-      .withSymbol(rs.getString("symbol"))
+      .withSymbol(this.symbols.intern(rs.getString("symbol")))
       .withIndex(rs.getLong("tradeIndex"))
       .withCreatedOn(rs.getTimestamp("createdOn"))
       .withReceivedOn(rs.getTimestamp("receivedOn"))
       .withSize(rs.getDouble("size"))
-      .withExchangeCode(rs.getString("exchangeCode"))
+      .withExchangeCode(this.symbols.intern(rs.getString("exchangeCode")))
       .withPrice(rs.getDouble("price"))
       .withBidPrice(rs.getDouble("bidPrice"))
       .withAskPrice(rs.getDouble("askPrice"))
-      .withExchangeSaleConditions(rs.getString("exchangeSaleConditions"))
-      .withAggressorSide(rs.getString("aggressorSide"))
+      .withExchangeSaleConditions(this.symbols.intern(rs.getString("exchangeSaleConditions")))
+      .withAggressorSide(this.symbols.intern(rs.getString("aggressorSide")))
       .withSpreadLeg(rs.getInt("spreadLeg") == 1)
       .withExtendedTradingHours(rs.getInt("extendedTradingHours") == 1)
       .withValidTick(rs.getInt("validTick") == 1)
-      .withType(rs.getString("type"))
+      .withType(this.symbols.intern(rs.getString("type")))
       .withLateSignature(rs.getInt("lateSignature") == 1)
-      .withTradeThroughExempt(rs.getString("tradeThroughExempt"))
+      .withTradeThroughExempt(this.symbols.intern(rs.getString("tradeThroughExempt")))
       .withSignaturePrint(rs.getInt("signaturePrint"))
       .build();
 
+    private final ChunkedBatchWriter<DXTimeAndSale> batchWriter;
+    private final MultiRowInsertWriter multiRowWriter = new MultiRowInsertWriter(INSERT_PREFIX, INSERT_COLUMNS);
+    private volatile boolean multiRowInsert;
+
+    private final LatestDateTracker latestDates;
+
+    private volatile DayArchive<DXTimeAndSale> archive;
+
     @Autowired
-    public DXTimeAndSaleTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor) {
-        super(taskExecutor);
+    public DXTimeAndSaleTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor,
+      LatestDateTracker latestDates) {
+        super(taskExecutor, DXTimeAndSale.class, DXTimeAndSale::getSymbol, TimeAndSaleUpdateEvent::new);
+        this.latestDates = latestDates;
+        this.batchWriter = new ChunkedBatchWriter<>(this.getClass().getSimpleName(), INSERT_SQL, this::getBatchParameters,
+          task -> this.getExecutor().execute(task));
+    }
+
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+    }
+
+    /**
+     * Serves closed days that have been archived with {@link #archiveDay(Date, boolean)} from files under the
+     * directory instead of MySQL.
+     */
+    public void enableArchive(Path directory) {
+        this.archive = new DayArchive<>(directory, "time_and_sale", new TimeAndSaleCodec());
+    }
+
+    public void disableArchive() {
+        this.archive = null;
+    }
+
+    /**
+     * Copies a closed trading day into the archive, optionally deleting it from MySQL afterwards.
+     *
+     * @return the number of records archived
+     */
+    public int archiveDay(Date day, boolean purge) throws IOException {
+        final DayArchive<DXTimeAndSale> archive = this.archive;
+        if (archive == null)
+            throw new IllegalStateException("Archive is not enabled");
+        return this.archiveDay(archive, "time_and_sale", day, purge, this.rowMapper);
     }
 
     @Override
@@ -58,13 +115,12 @@ public class DXTimeAndSaleTable extends AbstractDAO<DXTimeAndSale> implements DX
             to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
         }
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         final List<DXTimeAndSale> data = this.doListObjects(symbol, from, to, template, limit);
         if (data.isEmpty() && rollback) {
             final Date rollbackDate = new Date(from.getTime() - TimeUnit.DAYS.toMillis(7));
             try {
-                Date minDate = template.queryForObject("select max(createdOn) from time_and_sale"
-                  + " where createdOn >= ?", new Object[] { rollbackDate }, Date.class);
+                Date minDate = this.getLatestDate(this.latestDates, template, "time_and_sale", "createdOn", rollbackDate);
                 if (minDate != null) {
                     Calendar c = Calendar.getInstance();
                     c.setTime(minDate);
@@ -86,14 +142,98 @@ public class DXTimeAndSaleTable extends AbstractDAO<DXTimeAndSale> implements DX
     }
 
     private List<DXTimeAndSale> doListObjects(String symbol, Date from, Date to, JdbcTemplate template, int limit) {
-        final List<Object> params = new ArrayList<>(Arrays.asList(from, to));
+        final Date liveFrom = this.getArchivedUntil(this.archive, from, to);
+        if (liveFrom == from)
+            return this.doListLiveObjects(symbol, from, to, template, limit);
+        if (limit > 0) {
+            // the newest rows are live, so archived days are only read, newest first, for what the live rows leave
+            final List<DXTimeAndSale> rows = liveFrom.after(to) ? new ArrayList<>()
+              : new ArrayList<>(this.doListLiveObjects(symbol, liveFrom, to, template, limit));
+            this.readArchiveNewest(this.archive, this.getSymbols(symbol), from, to, liveFrom, limit,
+              Comparator.comparing(DXTimeAndSale::getCreatedOn).reversed(), t -> true, rows);
+            return rows;
+        }
+        final List<DXTimeAndSale> archived = new ArrayList<>();
+        this.readArchive(this.archive, this.getSymbols(symbol), from, to, archived::add);
+        final List<DXTimeAndSale> live = liveFrom.after(to) ? Collections.emptyList()
+          : this.doListLiveObjects(symbol, liveFrom, to, template, limit);
+        return this.mergeArchived(archived, live, DXTimeAndSale::getCreatedOn);
+    }
+
+    private List<DXTimeAndSale> doListLiveObjects(String symbol, Date from, Date to, JdbcTemplate template, int limit) {
+        final List<String> symbols = this.getSymbols(symbol);
+        if (this.isFanOut(symbols)) {
+            return this.fanOut(symbols, limit, s -> this.queryLiveObjects(s, from, to, template, limit, true),
+              DXTimeAndSale::getCreatedOn);
+        }
+        return this.queryLiveObjects(symbol, from, to, template, limit, false);
+    }
+
+    private List<DXTimeAndSale> queryLiveObjects(String symbol, Date from, Date to, JdbcTemplate template, int limit,
+      boolean ordered) {
+        final List<Object> params = new ArrayList<>();
+        String query = this.getListQuery(symbol, from, to, limit, params);
+        if (ordered && limit <= 0)
+            query += " order by t.createdOn desc";
+        return template.query(query, params.toArray(new Object[0]), this.rowMapper);
+    }
+
+    @Override
+    public int streamObjects(Date from, Date to, String symbol, int limit, Predicate<DXTimeAndSale> consumer) {
+        if (from.equals(to)) {
+            to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        if (limit > 0 && this.archive != null) {
+            // the limit keeps the newest rows, which are read newest first rather than in ascending order
+            int count = 0;
+            for (DXTimeAndSale t : this.doListObjects(symbol, from, to, template, limit)) {
+                count++;
+                if (!consumer.test(t))
+                    break;
+            }
+            return count;
+        }
+
+        final int[] archived = new int[1];
+        final Date liveFrom = this.readArchive(this.archive, this.getSymbols(symbol), from, to, t -> {
+            archived[0]++;
+            return consumer.test(t);
+        });
+        if (liveFrom.after(to))
+            return archived[0];
+
+        final List<Object> params = new ArrayList<>();
+        final String query = this.getListQuery(symbol, liveFrom, to, limit, params);
+        return archived[0] + this.stream(template, query, params.toArray(new Object[0]), this.rowMapper, consumer);
+    }
+
+    @Override
+    public Page<DXTimeAndSale> listObjectsPage(Date from, Date to, String symbol, int pageSize, String pageToken) {
+        if (from.equals(to)) {
+            to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final Date liveFrom = this.getArchivedUntil(this.archive, from, to);
+        final Date liveTo = to;
+        return this.queryPage(this.archive, this.getSymbols(symbol), from, to, liveFrom, () -> {
+            final List<Object> params = new ArrayList<>();
+            final String query = this.getListQuery(symbol, liveFrom, liveTo, 0, params);
+            return this.queryPage(template, query, params, "t", "createdOn", pageSize, pageToken, this.rowMapper,
+              DXTimeAndSale::getCreatedOn, DXTimeAndSale::getId);
+        }, pageSize, pageToken, DXTimeAndSale::getCreatedOn, DXTimeAndSale::getId);
+    }
+
+    private String getListQuery(String symbol, Date from, Date to, int limit, List<Object> params) {
+        params.addAll(Arrays.asList(from, to));
 
         String query = "select t.* from time_and_sale t where t.createdOn between ? and ?";
 
         if (symbol != null) {
             String[] symbols = symbol.split(",");
-            params.addAll(Arrays.stream(symbols).map(String::trim).filter(s -> !s.isBlank()).map(String::toUpperCase)
-              .collect(Collectors.toList()));
+            params.addAll(this.getSymbols(symbol));
             if (symbols.length == 1) {
                 query = query + " and t.symbol = ?";
             } else {
@@ -104,7 +244,14 @@ public class DXTimeAndSaleTable extends AbstractDAO<DXTimeAndSale> implements DX
         if (limit > 0)
             query += " order by t.createdOn desc limit " + limit;
 
-        return template.query(query, params.toArray(new Object[0]), this.rowMapper);
+        return query;
+    }
+
+    private List<String> getSymbols(String symbol) {
+        if (symbol == null)
+            return null;
+        return Arrays.stream(symbol.split(",")).map(String::trim).filter(s -> !s.isBlank()).map(String::toUpperCase)
+          .collect(Collectors.toList());
     }
 
     @Override
@@ -113,21 +260,36 @@ public class DXTimeAndSaleTable extends AbstractDAO<DXTimeAndSale> implements DX
         if (params.isEmpty())
             return;
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
-
-        final String insertOp = "insert ignore into time_and_sale (symbol, tradeIndex, createdOn, receivedOn, size, exchangeCode, "
-          + "price, bidPrice, askPrice, exchangeSaleConditions, aggressorSide, spreadLeg, extendedTradingHours, validTick, type, "
-          + "lateSignature, tradeThroughExempt, signaturePrint) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        template.batchUpdate(insertOp, params);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        if (this.multiRowInsert) {
+            this.multiRowWriter.write(template, params);
+        } else {
+            template.batchUpdate(INSERT_SQL, params);
+        }
 
         this.logger.debug("Pushed {} records to {}", params.size(), this.getClass().getSimpleName());
 
+        this.advanceLatestDate(in);
         this.broadcast(in);
     }
 
+    @Override
+    public BulkWriteResult bulkInsert(Iterator<DXTimeAndSale> in, int chunkSize) {
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        return this.batchWriter.write(template, in, chunkSize, chunk -> {
+            this.advanceLatestDate(chunk);
+            this.broadcast(chunk);
+        });
+    }
+
+    private void advanceLatestDate(List<DXTimeAndSale> in) {
+        in.stream().map(DXTimeAndSale::getCreatedOn).filter(Objects::nonNull).max(Date::compareTo)
+          .ifPresent(d -> this.latestDates.advance("time_and_sale", d));
+    }
+
     @Override
     public long getMaxTimestamp() {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         try {
             final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
             calendar.add(Calendar.DAY_OF_YEAR, -7);
@@ -0,0 +1,11 @@
+package com.cheddarflow.dao;
+
+import java.util.Date;
+
+public interface DailyCloseDAO {
+
+    int snapshot(Date tradeDate);
+    Float getClose(String symbol, Date tradeDate);
+    Float getPrevClose(String symbol, Date date);
+    Date getPreviousTradingDay(Date date);
+}
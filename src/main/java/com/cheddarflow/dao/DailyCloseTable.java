@@ -0,0 +1,140 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.TiingoEventType;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Per-symbol closing prices, one row per symbol and trading day in {@code daily_close (symbol, tradeDate, close)}
+ * keyed on (symbol, tradeDate). A closed day is materialized from the last {@code LAST_TRADE} of each symbol the
+ * first time it is asked for, and recent days are kept in memory.
+ */
+@Repository
+public class DailyCloseTable implements DailyCloseDAO {
+
+    private static final int CACHED_DAYS = 5;
+    private static final long EMPTY_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final TradingCalendar tradingCalendar;
+    private final ConcurrentSkipListMap<Long, Map<String, Float>> closes = new ConcurrentSkipListMap<>();
+    // days found without closes, with the time after which they are looked up again
+    private final Map<Long, Long> emptyDays = new ConcurrentHashMap<>();
+    // one lock per closed day being materialized, so concurrent misses run a single snapshot
+    private final Map<Long, Object> snapshotLocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DailyCloseTable(HolidayWindowDAO holidayWindowDAO) {
+        this.tradingCalendar = new TradingCalendar(holidayWindowDAO);
+    }
+
+    @Override
+    public int snapshot(Date tradeDate) {
+        final Date start = TradingCalendar.getDayStart(tradeDate);
+        final Date end = new Date(start.getTime() + TimeUnit.DAYS.toMillis(1));
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        final int rows = template.update("insert into daily_close (symbol, tradeDate, close) "
+            + "select t.symbol, ?, t.lastPrice from tiingo_iex_data t inner join (select symbol, max(createdOn) as createdOn "
+            + "from tiingo_iex_data where createdOn >= ? and createdOn < ? and tiingoEventType = ? group by symbol) m "
+            + "on t.symbol = m.symbol and t.createdOn = m.createdOn where t.tiingoEventType = ? "
+            + "on duplicate key update close = values(close)",
+          start, start, end, TiingoEventType.LAST_TRADE.name(), TiingoEventType.LAST_TRADE.name());
+        this.closes.remove(start.getTime());
+        this.emptyDays.remove(start.getTime());
+        this.logger.debug("Materialized {} closes for {}", rows, start);
+        return rows;
+    }
+
+    @Override
+    public Float getClose(String symbol, Date tradeDate) {
+        return this.getCloses(TradingCalendar.getDayStart(tradeDate)).get(symbol.toUpperCase());
+    }
+
+    @Override
+    public Float getPrevClose(String symbol, Date date) {
+        return this.getClose(symbol, this.getPreviousTradingDay(date));
+    }
+
+    @Override
+    public Date getPreviousTradingDay(Date date) {
+        return this.tradingCalendar.getPreviousTradingDay(date);
+    }
+
+    private Map<String, Float> getCloses(Date day) {
+        final Map<String, Float> cached = this.getCachedCloses(day);
+        if (cached != null)
+            return cached;
+        if (!day.before(TradingCalendar.getDayStart(new Date())))
+            return this.cacheCloses(day, this.loadCloses(day, true));
+
+        final Long key = day.getTime();
+        final Object lock = this.snapshotLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                final Map<String, Float> loaded = this.getCachedCloses(day);
+                if (loaded != null)
+                    return loaded;
+                // a snapshot writes to the primary, so read it back from there rather than a lagging replica
+                Map<String, Float> data = this.loadCloses(day, false);
+                if (data.isEmpty()) {
+                    this.snapshot(day);
+                    data = this.loadCloses(day, false);
+                }
+                return this.cacheCloses(day, data);
+            }
+        } finally {
+            this.snapshotLocks.remove(key, lock);
+        }
+    }
+
+    /**
+     * @return the cached closes of the day, an empty map if it was found empty recently, or null if it is not cached
+     */
+    private Map<String, Float> getCachedCloses(Date day) {
+        final Map<String, Float> cached = this.closes.get(day.getTime());
+        if (cached != null)
+            return cached;
+        final Long retryAt = this.emptyDays.get(day.getTime());
+        if (retryAt != null && retryAt > System.currentTimeMillis())
+            return Collections.emptyMap();
+        return null;
+    }
+
+    private Map<String, Float> cacheCloses(Date day, Map<String, Float> data) {
+        if (data.isEmpty()) {
+            // the prices may not have been loaded yet, so look again later rather than caching the miss for good
+            this.emptyDays.put(day.getTime(), System.currentTimeMillis() + EMPTY_RETRY_MILLIS);
+            this.emptyDays.values().removeIf(t -> t <= System.currentTimeMillis());
+            return data;
+        }
+        this.emptyDays.remove(day.getTime());
+        this.closes.put(day.getTime(), new ConcurrentHashMap<>(data));
+        while (this.closes.size() > CACHED_DAYS) {
+            this.closes.pollFirstEntry();
+        }
+        return data;
+    }
+
+    private Map<String, Float> loadCloses(Date day, boolean readOnly) {
+        final Map<String, Float> data = new HashMap<>();
+        JdbcTemplateSource.getTemplate(readOnly).query("select symbol, close from daily_close where tradeDate = ?",
+          rs -> {
+              data.put(rs.getString(1).toUpperCase(), rs.getFloat(2));
+          }, day);
+        return data;
+    }
+}
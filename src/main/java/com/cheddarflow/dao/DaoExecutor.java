@@ -0,0 +1,114 @@
+package com.cheddarflow.dao;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Where the DAOs run blocking work off the caller thread (chunk marshalling, parallel reads) and how they start their
+ * broadcast lanes. The default is the shared task executor and platform threads. On a JDK with virtual threads,
+ * {@link #virtual(int, Executor)} runs each task on its own virtual thread instead, holding one of
+ * {@code maxConcurrency} permits while it runs so the tasks never outnumber the read connections; lanes become virtual
+ * threads too. Registered as a bean, it is picked up by every DAO.
+ */
+public final class DaoExecutor implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DaoExecutor.class);
+
+    private final Executor executor;
+    private final ThreadFactory threadFactory;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    private DaoExecutor(Executor executor, ThreadFactory threadFactory, int maxConcurrency) {
+        this.executor = executor;
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+    }
+
+    /**
+     * Tasks run on the pool, which bounds them itself; lanes are platform threads.
+     */
+    public static DaoExecutor pooled(Executor pool) {
+        return new DaoExecutor(pool, null, 0);
+    }
+
+    /**
+     * Virtual thread per task, at most {@code maxConcurrency} running at once. Falls back to {@link #pooled(Executor)}
+     * on a JDK without virtual threads.
+     */
+    public static DaoExecutor virtual(int maxConcurrency, Executor fallback) {
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        final ThreadFactory factory = getVirtualThreadFactory();
+        if (factory == null) {
+            logger.warn("Virtual threads are not available on Java {}, using the task executor",
+              System.getProperty("java.version"));
+            return pooled(fallback);
+        }
+        return new DaoExecutor(task -> factory.newThread(task).start(), factory, maxConcurrency);
+    }
+
+    public boolean isVirtual() {
+        return this.threadFactory != null;
+    }
+
+    /**
+     * @return the concurrency limit of virtual tasks, or 0 when the pool bounds them
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @return virtual tasks waiting for a permit; always 0 for the pool
+     */
+    public int getQueueLength() {
+        return this.permits == null ? 0 : this.permits.getQueueLength();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        final Semaphore permits = this.permits;
+        if (permits == null) {
+            this.executor.execute(command);
+            return;
+        }
+        this.executor.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * @return an unstarted daemon thread, virtual in virtual mode
+     */
+    Thread newThread(Runnable task, String name) {
+        final Thread thread = this.threadFactory != null ? this.threadFactory.newThread(task) : new Thread(task);
+        thread.setName(name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * {@code Thread.ofVirtual().factory()}, looked up reflectively so the module still targets Java 11.
+     */
+    private static ThreadFactory getVirtualThreadFactory() {
+        try {
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> type = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            final Object named = type.getMethod("name", String.class, long.class).invoke(builder, "dao-virtual-", 0L);
+            return (ThreadFactory)type.getMethod("factory").invoke(named);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
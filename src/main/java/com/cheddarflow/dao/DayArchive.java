@@ -0,0 +1,305 @@
+package com.cheddarflow.dao;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Read-only archive of closed trading days of a table, one file per day. A file starts with a symbol index (offset
+ * and length of each symbol's records) followed by the records of each symbol in createdOn order, in the format of
+ * the table's {@link Codec}. Reads map only the requested symbol's region and decode straight from the mapping.
+ */
+final class DayArchive<T> {
+
+    private static final int HEADER_LENGTH = 16;
+    private static final int MAX_OPEN_SEGMENTS = 32;
+
+    /**
+     * Record format of one table. Records of a symbol are encoded in order, each with the previous record of the
+     * same symbol (null for the first), and decoded as one region.
+     */
+    interface Codec<T> {
+
+        int getMagic();
+
+        String getSymbol(T record);
+
+        void encode(ByteBuffer out, T record, T previous);
+
+        /**
+         * Passes the region's records with createdOn in [from, to] to the consumer.
+         *
+         * @return false if the consumer stopped the read
+         */
+        boolean decode(ByteBuffer in, String symbol, long from, long to, Predicate<T> consumer);
+    }
+
+    private final Path directory;
+    private final String table;
+    private final Codec<T> codec;
+    private final Map<Long, Segment> segments = Collections.synchronizedMap(
+      new LinkedHashMap<>(MAX_OPEN_SEGMENTS, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, Segment> eldest) {
+              if (this.size() <= MAX_OPEN_SEGMENTS)
+                  return false;
+              eldest.getValue().release();
+              return true;
+          }
+      });
+
+    DayArchive(Path directory, String table, Codec<T> codec) {
+        this.directory = directory;
+        this.table = table;
+        this.codec = codec;
+    }
+
+    boolean contains(Date day) {
+        return Files.isRegularFile(this.getFile(day));
+    }
+
+    /**
+     * Passes the day's records for the given symbols (all symbols when null) with createdOn in [from, to] to the
+     * consumer, symbol by symbol.
+     *
+     * @return false if the consumer stopped the read
+     */
+    boolean read(Date day, Collection<String> symbols, long from, long to, Predicate<T> consumer) {
+        final Segment segment = this.getSegment(day);
+        try {
+            for (String symbol : symbols != null ? symbols : segment.index.keySet()) {
+                final long[] region = segment.index.get(symbol);
+                if (region != null && !segment.read(symbol, region[0], region[1], from, to, consumer))
+                    return false;
+            }
+            return true;
+        } finally {
+            segment.release();
+        }
+    }
+
+    /**
+     * Starts a new file for the day. Records must be added grouped by symbol and in createdOn order within a symbol;
+     * the file only becomes visible to readers on {@link DayWriter#finish()}.
+     */
+    DayWriter newWriter(Date day) throws IOException {
+        Files.createDirectories(this.directory);
+        return new DayWriter(TradingCalendar.getDayStart(day).getTime());
+    }
+
+    private Path getFile(Date day) {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd");
+        return this.directory.resolve(this.table + "-" + format.format(TradingCalendar.getDayStart(day)) + ".seg");
+    }
+
+    /**
+     * @return the day's segment, retained for the caller, who must {@link Segment#release()} it
+     */
+    private Segment getSegment(Date day) {
+        final long dayStart = TradingCalendar.getDayStart(day).getTime();
+        synchronized (this.segments) {
+            Segment segment = this.segments.get(dayStart);
+            if (segment == null) {
+                try {
+                    segment = new Segment(this.getFile(day));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not open tick archive for " + day, e);
+                }
+                this.segments.put(dayStart, segment);
+            }
+            segment.references++;
+            return segment;
+        }
+    }
+
+    private final class Segment implements Closeable {
+
+        private final FileChannel channel;
+        private final Map<String, long[]> index = new LinkedHashMap<>();
+        // one for the cache and one per read in progress, guarded by the segments lock; the channel is closed when
+        // the segment has left the cache and its last read has finished
+        private int references = 1;
+
+        Segment(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                while (header.hasRemaining() && this.channel.read(header) >= 0);
+                header.flip();
+                if (header.remaining() < HEADER_LENGTH || header.getInt() != DayArchive.this.codec.getMagic())
+                    throw new IOException("Not a tick archive: " + file);
+                final int symbols = header.getInt();
+                final long dataStart = header.getLong();
+                final ByteBuffer index = this.channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH,
+                  dataStart - HEADER_LENGTH);
+                for (int i = 0; i < symbols; i++)
+                    this.index.put(getString(index), new long[] { index.getLong(), index.getLong() });
+            } catch (IOException | BufferUnderflowException e) {
+                this.close();
+                throw e instanceof IOException ? (IOException)e : new IOException("Truncated tick archive: " + file, e);
+            }
+        }
+
+        boolean read(String symbol, long offset, long length, long from, long to, Predicate<T> consumer) {
+            final MappedByteBuffer data;
+            try {
+                data = this.channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return DayArchive.this.codec.decode(data, symbol, from, to, consumer);
+        }
+
+        void release() {
+            synchronized (DayArchive.this.segments) {
+                if (--this.references == 0)
+                    this.close();
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    final class DayWriter implements Closeable {
+
+        private final long dayStart;
+        private final Path dataFile;
+        private final OutputStream data;
+        private final Map<String, long[]> index = new LinkedHashMap<>();
+        private ByteBuffer record = ByteBuffer.allocate(256);
+        private T previous;
+        private String symbol;
+        private long position;
+        private int count;
+
+        private DayWriter(long dayStart) throws IOException {
+            this.dayStart = dayStart;
+            this.dataFile = Files.createTempFile(DayArchive.this.directory, DayArchive.this.table, ".data");
+            this.data = new BufferedOutputStream(Files.newOutputStream(this.dataFile), 1 << 16);
+        }
+
+        void add(T t) throws IOException {
+            final String s = DayArchive.this.codec.getSymbol(t).toUpperCase();
+            if (!s.equals(this.symbol)) {
+                if (this.index.containsKey(s))
+                    throw new IllegalStateException("Records for " + s + " are not contiguous");
+                this.index.put(s, new long[] { this.position, 0 });
+                this.symbol = s;
+                this.previous = null;
+            }
+
+            this.record.clear();
+            while (true) {
+                try {
+                    DayArchive.this.codec.encode(this.record, t, this.previous);
+                    break;
+                } catch (BufferOverflowException e) {
+                    this.record = ByteBuffer.allocate(this.record.capacity() * 2);
+                }
+            }
+            this.data.write(this.record.array(), 0, this.record.position());
+            this.position += this.record.position();
+            this.index.get(s)[1] = this.position;
+            this.previous = t;
+            this.count++;
+        }
+
+        /**
+         * Writes the index in front of the records and moves the file into place.
+         *
+         * @return the number of records archived
+         */
+        int finish() throws IOException {
+            this.data.close();
+
+            long dataStart = HEADER_LENGTH;
+            for (String s : this.index.keySet())
+                dataStart += 2 + s.getBytes(StandardCharsets.UTF_8).length + 16;
+
+            final ByteBuffer header = ByteBuffer.allocate((int)dataStart);
+            header.putInt(DayArchive.this.codec.getMagic());
+            header.putInt(this.index.size());
+            header.putLong(dataStart);
+            for (Map.Entry<String, long[]> e : this.index.entrySet()) {
+                final long start = e.getValue()[0];
+                putString(header, e.getKey());
+                header.putLong(dataStart + start);
+                header.putLong(e.getValue()[1] - start);
+            }
+            header.flip();
+
+            final Path target = DayArchive.this.getFile(new Date(this.dayStart));
+            final Path tmp = Files.createTempFile(DayArchive.this.directory, DayArchive.this.table, ".tmp");
+            try (FileChannel dst = FileChannel.open(tmp, StandardOpenOption.WRITE);
+                 FileChannel src = FileChannel.open(this.dataFile, StandardOpenOption.READ)) {
+                while (header.hasRemaining())
+                    dst.write(header);
+                long copied = 0;
+                while (copied < src.size())
+                    copied += src.transferTo(copied, src.size() - copied, dst);
+                dst.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            } finally {
+                Files.deleteIfExists(this.dataFile);
+            }
+
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            final Segment replaced = DayArchive.this.segments.remove(this.dayStart);
+            if (replaced != null)
+                replaced.release();
+            return this.count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.data.close();
+            Files.deleteIfExists(this.dataFile);
+        }
+    }
+
+    static void putString(ByteBuffer b, String s) {
+        if (s == null) {
+            b.putShort((short)-1);
+            return;
+        }
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        b.putShort((short)bytes.length);
+        b.put(bytes);
+    }
+
+    static String getString(ByteBuffer b) {
+        final short length = b.getShort();
+        if (length < 0)
+            return null;
+        final byte[] bytes = new byte[length];
+        b.get(bytes);
+        return SymbolDictionary.getInstance().intern(new String(bytes, StandardCharsets.UTF_8));
+    }
+}
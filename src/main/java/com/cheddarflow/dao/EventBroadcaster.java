@@ -0,0 +1,385 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.eventbus.GlobalEventBus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Posts a DAO's events to {@link GlobalEventBus} from dispatcher lanes. Each event is routed by its symbol to one of
+ * {@code lanes} single-threaded lanes, so events for a symbol are posted in submission order while different symbols
+ * are posted in parallel. A lane takes events off its bounded queue in batches of up to {@code maxBatchSize},
+ * waiting at most {@code maxLatency} for a batch to fill. With coalescing on, runs of consecutive rows of the DAO's
+ * type are posted as one batch event instead of one event per row. Submitters block while a lane's queue is full.
+ * Once {@link #close()} returns, every event submitted before it has been posted and later submits are rejected.
+ */
+public final class EventBroadcaster<T> implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 512;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final int capacity;
+    private final Class<T> type;
+    private final Function<T, String> symbol;
+    private final Function<List<T>, ?> batchEvent;
+    private volatile int laneCount = 1;
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private volatile long maxLatencyNanos;
+    private volatile boolean coalesce;
+    private volatile DaoExecutor executor;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Long::max, 0);
+
+    private volatile Lane[] lanes;
+    // enqueue holds the read lock and close the write lock, so nothing is queued once the lanes start their last drain
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    /**
+     * @param type the DAO's row type, or null if it has no batch event
+     * @param symbol the symbol a row is ordered by
+     * @param batchEvent builds the batch event for a run of rows
+     */
+    EventBroadcaster(String name, Class<T> type, Function<T, String> symbol, Function<List<T>, ?> batchEvent) {
+        this(name, DEFAULT_CAPACITY, type, symbol, batchEvent);
+    }
+
+    EventBroadcaster(String name, int capacity, Class<T> type, Function<T, String> symbol,
+      Function<List<T>, ?> batchEvent) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.name = name;
+        this.capacity = capacity;
+        this.type = type;
+        this.symbol = symbol;
+        this.batchEvent = batchEvent;
+    }
+
+    /**
+     * Sets the number of dispatcher lanes; only possible before the first event is submitted.
+     */
+    public synchronized void setLanes(int lanes) {
+        if (lanes <= 0)
+            throw new IllegalArgumentException("lanes must be positive");
+        if (this.lanes != null)
+            throw new IllegalStateException(this.name + " broadcaster is already running");
+        this.laneCount = lanes;
+    }
+
+    public int getLanes() {
+        return this.laneCount;
+    }
+
+    /**
+     * Starts the lanes as threads of the executor, virtual in its virtual mode; lanes already running are kept.
+     */
+    void setExecutor(DaoExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * How long a lane waits for more events once a batch has started; zero posts whatever is queued at once.
+     */
+    public void setMaxLatency(long maxLatency, TimeUnit unit) {
+        this.maxLatencyNanos = unit.toNanos(maxLatency);
+    }
+
+    public void setCoalesce(boolean coalesce) {
+        if (coalesce && this.batchEvent == null)
+            throw new IllegalStateException(this.name + " has no batch event");
+        this.coalesce = coalesce;
+    }
+
+    public int getQueueDepth() {
+        final Lane[] lanes = this.lanes;
+        if (lanes == null)
+            return 0;
+        int depth = 0;
+        for (Lane lane : lanes)
+            depth += lane.queue.size();
+        return depth;
+    }
+
+    public int getQueueDepth(int lane) {
+        final Lane[] lanes = this.lanes;
+        return lanes == null ? 0 : lanes[lane].queue.size();
+    }
+
+    /**
+     * @return the deepest any single lane's queue has been
+     */
+    public long getMaxQueueDepth() {
+        return this.maxQueueDepth.get();
+    }
+
+    public long getSubmittedCount() {
+        return this.submitted.sum();
+    }
+
+    public long getPostedCount() {
+        return this.posted.sum();
+    }
+
+    public long getBatchCount() {
+        return this.batches.sum();
+    }
+
+    public long getFailureCount() {
+        return this.failures.sum();
+    }
+
+    void submit(T event) {
+        this.enqueue(this.symbol.apply(event), event);
+    }
+
+    void submitAll(List<T> events) {
+        events.forEach(this::submit);
+    }
+
+    /**
+     * Queues an event that is built on the dispatcher lane of the symbol; a null result is skipped.
+     */
+    void submit(String symbol, Supplier<?> event) {
+        this.enqueue(symbol, event);
+    }
+
+    /**
+     * Queues rows to be posted as batch events, one per lane holding the lane's rows in order.
+     */
+    void submitBatch(List<T> rows) {
+        if (rows.isEmpty())
+            return;
+        final Lane[] lanes = this.getLanesStarted();
+        if (lanes.length == 1) {
+            this.enqueue(lanes[0], new Batch<>(rows));
+            return;
+        }
+
+        final List<List<T>> byLane = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++)
+            byLane.add(null);
+        for (T row : rows) {
+            final int lane = this.getLane(this.symbol.apply(row), lanes.length);
+            if (byLane.get(lane) == null)
+                byLane.set(lane, new ArrayList<>());
+            byLane.get(lane).add(row);
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            if (byLane.get(i) != null)
+                this.enqueue(lanes[i], new Batch<>(byLane.get(i)));
+        }
+    }
+
+    private void enqueue(String symbol, Object event) {
+        final Lane[] lanes = this.getLanesStarted();
+        this.enqueue(lanes[this.getLane(symbol, lanes.length)], event);
+    }
+
+    private void enqueue(Lane lane, Object event) {
+        this.submitLock.readLock().lock();
+        try {
+            if (!this.running)
+                throw new IllegalStateException(this.name + " broadcaster is closed");
+            lane.queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.warn("Interrupted while broadcasting {} event", this.name);
+            return;
+        } finally {
+            this.submitLock.readLock().unlock();
+        }
+        this.submitted.increment();
+        this.maxQueueDepth.accumulate(lane.queue.size());
+    }
+
+    private int getLane(String symbol, int lanes) {
+        if (lanes == 1 || symbol == null)
+            return 0;
+        final int h = symbol.hashCode();
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % lanes;
+    }
+
+    private Lane[] getLanesStarted() {
+        final Lane[] lanes = this.lanes;
+        return lanes != null ? lanes : this.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Lane[] start() {
+        if (this.lanes == null) {
+            final Lane[] lanes = new EventBroadcaster.Lane[this.laneCount];
+            for (int i = 0; i < lanes.length; i++)
+                lanes[i] = new Lane(lanes.length == 1 ? this.name + "-broadcaster" : this.name + "-broadcaster-" + i);
+            this.lanes = lanes;
+        }
+        return this.lanes;
+    }
+
+    @Override
+    public void close() {
+        this.submitLock.writeLock().lock();
+        try {
+            this.running = false;
+        } finally {
+            this.submitLock.writeLock().unlock();
+        }
+        final Lane[] lanes;
+        synchronized (this) {
+            lanes = this.lanes;
+        }
+        if (lanes == null)
+            return;
+        try {
+            for (Lane lane : lanes)
+                lane.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Lane {
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(EventBroadcaster.this.capacity);
+        private final Thread thread;
+
+        Lane(String name) {
+            final DaoExecutor executor = EventBroadcaster.this.executor;
+            if (executor != null) {
+                this.thread = executor.newThread(this::dispatch, name);
+            } else {
+                this.thread = new Thread(this::dispatch, name);
+                this.thread.setDaemon(true);
+            }
+            this.thread.start();
+        }
+
+        private void dispatch() {
+            final List<Object> batch = new ArrayList<>();
+            while (EventBroadcaster.this.running || !this.queue.isEmpty()) {
+                try {
+                    final Object first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null)
+                        continue;
+                    batch.add(first);
+                    this.fill(batch);
+                    EventBroadcaster.this.post(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void fill(List<Object> batch) throws InterruptedException {
+            final int maxBatchSize = EventBroadcaster.this.maxBatchSize;
+            this.queue.drainTo(batch, maxBatchSize - batch.size());
+            final long deadline = System.nanoTime() + EventBroadcaster.this.maxLatencyNanos;
+            while (batch.size() < maxBatchSize) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return;
+                final Object next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null)
+                    return;
+                batch.add(next);
+                this.queue.drainTo(batch, maxBatchSize - batch.size());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void post(List<Object> batch) {
+        this.batches.increment();
+        this.logger.trace("Broadcasting {} {} events", batch.size(), this.name);
+        final boolean coalesce = this.coalesce;
+        List<T> run = null;
+        for (Object item : batch) {
+            if (item instanceof Batch) {
+                final List<T> rows = ((Batch<T>)item).rows;
+                if (coalesce) {
+                    if (run == null)
+                        run = new ArrayList<>();
+                    run.addAll(rows);
+                    continue;
+                }
+                this.post(this.batchEvent.apply(rows));
+                continue;
+            }
+
+            final Object event = this.resolve(item);
+            if (event == null)
+                continue;
+            if (coalesce && this.type.isInstance(event)) {
+                if (run == null)
+                    run = new ArrayList<>();
+                run.add(this.type.cast(event));
+                continue;
+            }
+            if (run != null) {
+                this.post(this.batchEvent.apply(run));
+                run = null;
+            }
+            this.post(event);
+        }
+        if (run != null)
+            this.post(this.batchEvent.apply(run));
+    }
+
+    private Object resolve(Object item) {
+        if (!(item instanceof Supplier))
+            return item;
+        try {
+            return ((Supplier<?>)item).get();
+        } catch (Exception e) {
+            this.failures.increment();
+            this.logger.error("Could not build {} event", this.name, e);
+            return null;
+        }
+    }
+
+    private void post(Object event) {
+        try {
+            GlobalEventBus.post(event);
+            this.posted.increment();
+        } catch (Exception e) {
+            this.failures.increment();
+            this.logger.error("Unexpected error in broadcast of {} data", event.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static final class Batch<T> {
+
+        private final List<T> rows;
+
+        private Batch(List<T> rows) {
+            this.rows = rows;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.cheddarflow.dao;
 
 import com.cheddarflow.model.HolidayWindow;
 
+import java.util.Date;
 import java.util.List;
 
 public interface HolidayWindowDAO {
 
     List<HolidayWindow> getHolidayWindows();
+    List<HolidayWindow> getHolidayWindows(Date from, Date to);
 }
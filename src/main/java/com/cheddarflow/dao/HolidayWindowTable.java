@@ -1,8 +1,8 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.jdbc.JdbcTemplates;
 import com.cheddarflow.model.HolidayWindow;
 
+import java.util.Date;
 import java.util.List;
 
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -22,7 +22,13 @@ public class HolidayWindowTable implements HolidayWindowDAO {
 
     @Override
     public List<HolidayWindow> getHolidayWindows() {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         return template.query("select * from holiday where year=year(now()) and startTime > now()", this.rowMapper);
     }
+
+    @Override
+    public List<HolidayWindow> getHolidayWindows(Date from, Date to) {
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        return template.query("select * from holiday where startTime < ? and endTime > ?", this.rowMapper, to, from);
+    }
 }
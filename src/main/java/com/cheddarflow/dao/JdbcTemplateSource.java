@@ -0,0 +1,31 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.jdbc.JdbcTemplates;
+
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Resolves the templates the DAOs in this package run on. Normally the shared {@link JdbcTemplates}; the benchmark
+ * harness points them at an embedded database instead.
+ */
+final class JdbcTemplateSource {
+
+    private static volatile Function<Boolean, JdbcTemplate> override;
+
+    private JdbcTemplateSource() {
+    }
+
+    static JdbcTemplate getTemplate(boolean readOnly) {
+        final Function<Boolean, JdbcTemplate> source = override;
+        return source != null ? source.apply(readOnly) : JdbcTemplates.getInstance().getTemplate(readOnly);
+    }
+
+    /**
+     * @param source the template for a read-only flag, or null to go back to {@link JdbcTemplates}
+     */
+    static void override(Function<Boolean, JdbcTemplate> source) {
+        override = source;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cheddarflow.dao;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Newest row date per table, used to resolve rollback reads without a {@code max(...)} probe. Local writes advance
+ * it and it is reconciled against the database at most once per reconcile interval to pick up other writers.
+ */
+@Component
+public class LatestDateTracker {
+
+    private final Map<String, Tracked> tables = new ConcurrentHashMap<>();
+    private volatile long reconcileIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+
+    public Date getLatest(String table, Supplier<Date> reconcile) {
+        final Tracked tracked = this.tables.computeIfAbsent(table, k -> new Tracked());
+        final long now = System.currentTimeMillis();
+        if (now - tracked.reconciledAt > this.reconcileIntervalMillis) {
+            synchronized (tracked) {
+                if (now - tracked.reconciledAt > this.reconcileIntervalMillis) {
+                    final Date latest = reconcile.get();
+                    if (latest != null)
+                        tracked.latest.accumulateAndGet(latest.getTime(), Math::max);
+                    tracked.reconciledAt = now;
+                }
+            }
+        }
+        final long latest = tracked.latest.get();
+        return latest == 0 ? null : new Date(latest);
+    }
+
+    public void advance(String table, Date date) {
+        if (date != null)
+            this.tables.computeIfAbsent(table, k -> new Tracked()).latest.accumulateAndGet(date.getTime(), Math::max);
+    }
+
+    public void setReconcileInterval(long interval, TimeUnit unit) {
+        this.reconcileIntervalMillis = unit.toMillis(interval);
+    }
+
+    private static final class Tracked {
+
+        private final AtomicLong latest = new AtomicLong();
+        private volatile long reconciledAt;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.TiingoIEXEvent;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Newest {@link TiingoIEXEvent} per symbol. The store is filled in bulk, advanced by local inserts and considered
+ * stale once {@code maxStalenessMillis} has passed since the last bulk load, which picks up rows written by other
+ * nodes. A full load replaces the symbols, so ones without rows any more are dropped; in between, loads only bring in
+ * the rows written since the previous one.
+ */
+final class LatestQuoteStore {
+
+    private static final long FULL_LOAD_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Map<String, TiingoIEXEvent> latest = new ConcurrentHashMap<>();
+    private volatile long maxStalenessMillis;
+    private volatile long loadedAt;
+    private volatile long fullyLoadedAt;
+
+    LatestQuoteStore(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    void setMaxStalenessMillis(long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    boolean isStale() {
+        return System.currentTimeMillis() - this.loadedAt > this.maxStalenessMillis;
+    }
+
+    boolean isFullLoadDue() {
+        return System.currentTimeMillis() - this.fullyLoadedAt > FULL_LOAD_INTERVAL_MILLIS;
+    }
+
+    /**
+     * @return when the query of the last load started, in epoch millis
+     */
+    long getLoadedAt() {
+        return this.loadedAt;
+    }
+
+    /**
+     * Replaces the store with the newest row of every symbol, keeping only symbols updated locally after the query
+     * started at {@code startedAt}.
+     */
+    void load(Collection<TiingoIEXEvent> events, long startedAt) {
+        final Set<String> symbols = new HashSet<>(events.size() * 2);
+        events.forEach(e -> symbols.add(e.getSymbol().toUpperCase()));
+        this.latest.values().removeIf(e -> !symbols.contains(e.getSymbol().toUpperCase())
+          && e.getCreatedOn().getTime() < startedAt);
+        events.forEach(this::update);
+        this.loadedAt = startedAt;
+        this.fullyLoadedAt = startedAt;
+    }
+
+    /**
+     * Adds the newest rows written since the previous load, from a query started at {@code startedAt}.
+     */
+    void loadSince(Collection<TiingoIEXEvent> events, long startedAt) {
+        events.forEach(this::update);
+        this.loadedAt = startedAt;
+    }
+
+    void update(TiingoIEXEvent event) {
+        this.latest.merge(event.getSymbol().toUpperCase(), event,
+          (a, b) -> b.getCreatedOn().before(a.getCreatedOn()) ? a : b);
+    }
+
+    TiingoIEXEvent get(String symbol) {
+        return this.latest.get(symbol.toUpperCase());
+    }
+}
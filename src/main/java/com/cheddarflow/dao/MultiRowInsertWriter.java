@@ -0,0 +1,94 @@
+package com.cheddarflow.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Executes a batch of single-row inserts as multi-row {@code values (...),(...)} statements. The number of rows per
+ * statement is capped by the server's {@code max_allowed_packet} and the placeholder limit. A tail shorter than the
+ * cap is sent as one statement of the largest power of two rows that fits and a plain batch of the rest, so only the
+ * full size and the powers of two below it are ever built and the driver's statement cache holds a bounded set.
+ */
+final class MultiRowInsertWriter {
+
+    private static final int MAX_PLACEHOLDERS = 65535;
+    private static final int ESTIMATED_BYTES_PER_COLUMN = 32;
+    private static final long DEFAULT_MAX_ALLOWED_PACKET = 4 * 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String prefix;
+    private final int columns;
+    private final String rowPlaceholders;
+    private final Map<Integer, String> statements = new ConcurrentHashMap<>();
+    private volatile int maxRows;
+
+    MultiRowInsertWriter(String prefix, int columns) {
+        this.prefix = prefix;
+        this.columns = columns;
+        this.rowPlaceholders = "(" + "?, ".repeat(columns - 1) + "?)";
+    }
+
+    int write(JdbcTemplate template, List<Object[]> params) {
+        final int rowsPerStatement = this.getMaxRows(template);
+        int updated = 0;
+        int i = 0;
+        while (i < params.size()) {
+            final int remaining = params.size() - i;
+            final int size = remaining >= rowsPerStatement ? rowsPerStatement : Integer.highestOneBit(remaining);
+            final List<Object[]> rows = params.subList(i, i + size);
+            final List<Object> values = new ArrayList<>(rows.size() * this.columns);
+            rows.forEach(row -> Collections.addAll(values, row));
+            updated += template.update(this.getStatement(size), values.toArray(new Object[0]));
+            i += size;
+            if (size < rowsPerStatement)
+                break;
+        }
+        if (i < params.size())
+            updated += IntStream.of(template.batchUpdate(this.getStatement(1), params.subList(i, params.size()))).sum();
+        return updated;
+    }
+
+    private String getStatement(int rows) {
+        return this.statements.computeIfAbsent(rows, this::buildStatement);
+    }
+
+    private String buildStatement(int rows) {
+        final StringBuilder builder = new StringBuilder(this.prefix.length() + rows * (this.rowPlaceholders.length() + 2))
+          .append(this.prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(this.rowPlaceholders);
+        }
+        return builder.toString();
+    }
+
+    private int getMaxRows(JdbcTemplate template) {
+        if (this.maxRows > 0)
+            return this.maxRows;
+
+        long maxAllowedPacket = DEFAULT_MAX_ALLOWED_PACKET;
+        try {
+            final Long packet = template.queryForObject("select @@max_allowed_packet", Long.class);
+            if (packet != null)
+                maxAllowedPacket = packet;
+        } catch (DataAccessException e) {
+            this.logger.warn("Could not read max_allowed_packet, assuming {} bytes", maxAllowedPacket, e);
+        }
+        // leave half of the packet as headroom for wide string columns
+        final long byPacket = maxAllowedPacket / 2 / ((long)this.columns * ESTIMATED_BYTES_PER_COLUMN);
+        this.maxRows = (int)Math.max(1, Math.min(byPacket, MAX_PLACEHOLDERS / this.columns));
+        this.logger.debug("Using {} rows per statement for {}", this.maxRows, this.prefix);
+        return this.maxRows;
+    }
+}
@@ -0,0 +1,47 @@
+package com.cheddarflow.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Continuation point of a keyset page: the timestamp and id of the last row returned, encoded as an opaque string.
+ */
+final class PageToken {
+
+    private final long timestamp;
+    private final long id;
+
+    PageToken(Date timestamp, long id) {
+        this.timestamp = timestamp.getTime();
+        this.id = id;
+    }
+
+    private PageToken(long timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    Date getTimestamp() {
+        return new Date(this.timestamp);
+    }
+
+    long getId() {
+        return this.id;
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString((this.timestamp + ":" + this.id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static PageToken decode(String token) {
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            final int separator = value.indexOf(':');
+            return new PageToken(Long.parseLong(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+}
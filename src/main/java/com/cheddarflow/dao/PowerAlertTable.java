@@ -1,6 +1,5 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.jdbc.JdbcTemplates;
 import com.cheddarflow.jdbc.NoDataInRangeException;
 import com.cheddarflow.model.ImmutablePowerAlert;
 import com.cheddarflow.model.PowerAlert;
@@ -55,17 +54,19 @@ public class PowerAlertTable extends AbstractDAO<PowerAlert> implements PowerAle
     };
 
     private final DXTimeAndSaleDAO darkPoolDAO;
+    private final LatestDateTracker latestDates;
 
     @Autowired
     public PowerAlertTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor,
-      DXTimeAndSaleDAO darkPoolDAO) {
+      DXTimeAndSaleDAO darkPoolDAO, LatestDateTracker latestDates) {
         super(taskExecutor);
         this.darkPoolDAO = darkPoolDAO;
+        this.latestDates = latestDates;
     }
 
     @Override
     public List<PowerAlert> findBySymbolAndDateRange(String symbol, Date from, Date to, boolean paOnly, boolean rollback) {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         final List<PowerAlert> data = this.doFindBySymbolAndDateRange(symbol, from, to, paOnly, template);
         if (!data.isEmpty() || !rollback)
             return data;
@@ -82,8 +83,7 @@ public class PowerAlertTable extends AbstractDAO<PowerAlert> implements PowerAle
 
         final Date rollbackDate = new Date(from.getTime() - TimeUnit.DAYS.toMillis(7));
         try {
-            Date minDate = template.queryForObject("select max(createdOn) from power_alerts"
-              + " where createdOn >= ?", new Object[] { rollbackDate }, Date.class);
+            Date minDate = this.getLatestDate(this.latestDates, template, "power_alerts", "createdOn", rollbackDate);
             if (minDate != null) {
                 Calendar c = Calendar.getInstance();
                 c.setTime(minDate);
@@ -120,13 +120,13 @@ public class PowerAlertTable extends AbstractDAO<PowerAlert> implements PowerAle
 
     @Override
     public List<PowerAlert> findBySymbol(String symbol) {
-        return JdbcTemplates.getInstance().getTemplate(true).query("select * from power_alerts where symbol = ?",
+        return JdbcTemplateSource.getTemplate(true).query("select * from power_alerts where symbol = ?",
           this.mapper, symbol);
     }
 
     @Override
     public Optional<PowerAlert> findBySymbolAndDate(String symbol, Date alertDate) {
-        return JdbcTemplates.getInstance().getTemplate(true)
+        return JdbcTemplateSource.getTemplate(true)
           .query("select * from power_alerts where symbol = ? and alertDate = ? limit 1", this.mapper, symbol, alertDate)
           .stream().findFirst();
     }
@@ -136,18 +136,20 @@ public class PowerAlertTable extends AbstractDAO<PowerAlert> implements PowerAle
         if (powerAlert.getId().isEmpty()) {
             final Object[] params = this.getInsertParams(powerAlert);
             logger.trace("Insert params: {}", Arrays.toString(params));
-            JdbcTemplates.getInstance().getTemplate(false).update(INSERT_SQL, params);
+            JdbcTemplateSource.getTemplate(false).update(INSERT_SQL, params);
         } else {
             final Object[] params = this.getUpdateParams(powerAlert);
             logger.trace("Update params: {}", Arrays.toString(params));
-            JdbcTemplates.getInstance().getTemplate(false).update(UPDATE_SQL, params);
+            JdbcTemplateSource.getTemplate(false).update(UPDATE_SQL, params);
         }
+        this.latestDates.advance("power_alerts", powerAlert.getCreatedOn());
     }
 
     @Override
     public void bulkInsert(List<PowerAlert> powerAlerts) {
         final List<Object[]> params = powerAlerts.stream().map(this::getInsertParams).collect(Collectors.toList());
-        JdbcTemplates.getInstance().getTemplate(false).batchUpdate(INSERT_SQL, params);
+        JdbcTemplateSource.getTemplate(false).batchUpdate(INSERT_SQL, params);
+        powerAlerts.forEach(pa -> this.latestDates.advance("power_alerts", pa.getCreatedOn()));
     }
 
     private Object[] getInsertParams(PowerAlert pa) {
@@ -171,12 +173,13 @@ public class PowerAlertTable extends AbstractDAO<PowerAlert> implements PowerAle
     @Override
     public void bulkUpdate(List<PowerAlert> powerAlerts) {
         final List<Object[]> params = powerAlerts.stream().map(this::getUpdateParams).collect(Collectors.toList());
-        JdbcTemplates.getInstance().getTemplate(false).batchUpdate(UPDATE_SQL, params);
+        JdbcTemplateSource.getTemplate(false).batchUpdate(UPDATE_SQL, params);
+        powerAlerts.forEach(pa -> this.latestDates.advance("power_alerts", pa.getCreatedOn()));
     }
 
     @Override
     public void deleteBefore(Date cutoff) {
-        JdbcTemplates.getInstance().getTemplate(false).update(DELETE_SQL, cutoff);
+        JdbcTemplateSource.getTemplate(false).update(DELETE_SQL, cutoff);
     }
 
     private Object[] getUpdateParams(PowerAlert pa) {
@@ -0,0 +1,123 @@
+package com.cheddarflow.dao;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running put and call sizes per symbol for a single trading day, seeded from the database and then advanced by
+ * every trade this node inserts. A seed is taken in two steps: {@link #begin} starts a pending day that collects the
+ * adds made while the seed query runs, and {@link #complete} folds the queried sizes into it and swaps it in. Readers
+ * see the previous day until then.
+ */
+final class PutCallAccumulator {
+
+    private static final int PUTS = 0;
+    private static final int CALLS = 1;
+
+    private volatile Day day = new Day(-1, new ConcurrentHashMap<>(), 0);
+    private volatile Day pending;
+
+    long getDayStart() {
+        return this.day.start;
+    }
+
+    /**
+     * @return when the current day was last seeded, in epoch millis
+     */
+    long getSeededAt() {
+        return this.day.seededAt;
+    }
+
+    /**
+     * Starts collecting adds for {@code dayStart} into a pending day. Must not overlap with an add, so every trade is
+     * either in the seed query or collected here.
+     */
+    void begin(long dayStart) {
+        this.pending = new Day(dayStart, new ConcurrentHashMap<>(), 0);
+    }
+
+    /**
+     * Adds the seeded sizes to the pending day and makes it current.
+     */
+    void complete(Map<String, long[]> initial) {
+        final Day pending = this.pending;
+        initial.forEach((symbol, counts) -> {
+            final LongAdder[] adders = pending.sizes.computeIfAbsent(symbol.toUpperCase(), k -> newAdders());
+            adders[PUTS].add(counts[PUTS]);
+            adders[CALLS].add(counts[CALLS]);
+        });
+        // day before pending, so an add that sees no pending day sees this one
+        this.day = new Day(pending.start, pending.sizes, System.currentTimeMillis());
+        this.pending = null;
+    }
+
+    void abort() {
+        this.pending = null;
+    }
+
+    void add(long dayStart, String symbol, String pc, int size) {
+        if (symbol == null)
+            return;
+        final int index;
+        if ("P".equalsIgnoreCase(pc)) {
+            index = PUTS;
+        } else if ("C".equalsIgnoreCase(pc)) {
+            index = CALLS;
+        } else {
+            return;
+        }
+        final Day pending = this.pending;
+        final Day day = this.day;
+        if (pending != null)
+            add(pending, dayStart, symbol, index, size);
+        if (pending == null || day.sizes != pending.sizes)
+            add(day, dayStart, symbol, index, size);
+    }
+
+    private static void add(Day day, long dayStart, String symbol, int index, int size) {
+        if (dayStart == day.start)
+            day.sizes.computeIfAbsent(symbol.toUpperCase(), k -> newAdders())[index].add(size);
+    }
+
+    /**
+     * @return puts and calls summed over the given symbols, or over every symbol when {@code symbols} is null
+     */
+    long[] sum(Collection<String> symbols) {
+        final Map<String, LongAdder[]> sizes = this.day.sizes;
+        final long[] total = new long[2];
+        if (symbols == null) {
+            sizes.values().forEach(adders -> addTo(total, adders));
+        } else {
+            symbols.forEach(symbol -> {
+                final LongAdder[] adders = sizes.get(symbol.toUpperCase());
+                if (adders != null)
+                    addTo(total, adders);
+            });
+        }
+        return total;
+    }
+
+    private static void addTo(long[] total, LongAdder[] adders) {
+        total[PUTS] += adders[PUTS].sum();
+        total[CALLS] += adders[CALLS].sum();
+    }
+
+    private static LongAdder[] newAdders() {
+        return new LongAdder[] { new LongAdder(), new LongAdder() };
+    }
+
+    private static final class Day {
+
+        private final long start;
+        private final Map<String, LongAdder[]> sizes;
+        private final long seededAt;
+
+        private Day(long start, Map<String, LongAdder[]> sizes, long seededAt) {
+            this.start = start;
+            this.sizes = sizes;
+            this.seededAt = seededAt;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.cheddarflow.dao;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Hashes of the (timestamp, tradeid) keys inserted over the last one to two windows, kept in two rotating
+ * primitive sets. For a timestamp inside the covered range a miss means the trade is definitely new; a hit may be a
+ * hash collision and has to be confirmed against the database.
+ */
+final class RecentTradeFilter {
+
+    private final long windowMillis;
+    private LongHashSet current = new LongHashSet();
+    private LongHashSet previous = new LongHashSet();
+    private long generationStart;
+    private long coveredFrom = Long.MAX_VALUE;
+
+    RecentTradeFilter(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    long getWindowMillis() {
+        return this.windowMillis;
+    }
+
+    synchronized void reset(long from) {
+        this.current = new LongHashSet();
+        this.previous = new LongHashSet();
+        this.generationStart = from;
+        this.coveredFrom = from;
+    }
+
+    synchronized boolean isDefinitelyNew(Date timestamp, int tradeid) {
+        final long ts = timestamp.getTime();
+        if (ts < this.coveredFrom)
+            return false;
+        final long hash = hash(ts, tradeid);
+        return !this.current.contains(hash) && !this.previous.contains(hash);
+    }
+
+    synchronized void add(Date timestamp, int tradeid) {
+        final long ts = timestamp.getTime();
+        if (ts > this.generationStart + this.windowMillis) {
+            this.previous = this.current;
+            this.current = new LongHashSet();
+            this.coveredFrom = Math.max(this.coveredFrom, this.generationStart);
+            this.generationStart = ts;
+        }
+        this.current.add(hash(ts, tradeid));
+    }
+
+    synchronized int size() {
+        return this.current.size + this.previous.size;
+    }
+
+    private static long hash(long timestamp, int tradeid) {
+        long h = timestamp * 0x9E3779B97F4A7C15L + tradeid;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private static final class LongHashSet {
+
+        private long[] keys = new long[1024];
+        private int size;
+
+        boolean contains(long key) {
+            final int mask = this.keys.length - 1;
+            for (int i = (int)key & mask; this.keys[i] != 0; i = (i + 1) & mask) {
+                if (this.keys[i] == key)
+                    return true;
+            }
+            return false;
+        }
+
+        void add(long key) {
+            if ((this.size + 1) * 2 > this.keys.length)
+                this.grow();
+            if (insert(this.keys, key))
+                this.size++;
+        }
+
+        private void grow() {
+            final long[] old = this.keys;
+            this.keys = new long[old.length * 2];
+            Arrays.stream(old).filter(k -> k != 0).forEach(k -> insert(this.keys, k));
+        }
+
+        private static boolean insert(long[] keys, long key) {
+            final int mask = keys.length - 1;
+            int i = (int)key & mask;
+            for (; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key)
+                    return false;
+            }
+            keys[i] = key;
+            return true;
+        }
+    }
+}
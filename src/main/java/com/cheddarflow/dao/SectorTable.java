@@ -1,17 +1,26 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.jdbc.JdbcTemplates;
+import com.cheddarflow.dao.event.SectorUpdateEvent;
+import com.cheddarflow.eventbus.GlobalEventBus;
 import com.cheddarflow.model.SectorDataInput;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class SectorTable implements SectorDAO {
 
+    private final SubsectorCache subsectorCache;
+
+    @Autowired
+    public SectorTable(SubsectorCache subsectorCache) {
+        this.subsectorCache = subsectorCache;
+    }
+
     @Override
     public void setSectorData(SectorDataInput in) {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
 
         final Integer ct = template.queryForObject("select count(1) from sectors where symbol = ?", new Object[] { in.symbol },
           Integer.class);
@@ -24,5 +33,8 @@ public class SectorTable implements SectorDAO {
               in.subsector, in.symbol, in.subsector);
         }
         template.update("update trades set subsector = ? where symbol = ?", in.subsector, in.symbol);
+
+        this.subsectorCache.put(in.symbol, in.subsector);
+        GlobalEventBus.post(new SectorUpdateEvent(in.symbol, in.subsector));
     }
 }
@@ -1,6 +1,5 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.jdbc.JdbcTemplates;
 import com.cheddarflow.model.SignaturePrint;
 
 import java.util.Date;
@@ -22,20 +21,20 @@ public class SignaturePrintTable implements SignaturePrintDAO {
 
     @Override
     public List<SignaturePrint> getSignaturePrints() {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         return template.query("select symbol, occurrence, printDate from signature_print", this.rowMapper);
     }
 
     @Override
     public Optional<SignaturePrint> findBySymbolAndDate(String symbol, Date printDate) {
-        return JdbcTemplates.getInstance().getTemplate(true)
+        return JdbcTemplateSource.getTemplate(true)
           .query("select * from signature_print where symbol = ? and printDate = ? limit 1", this.rowMapper, symbol, printDate)
           .stream().findFirst();
     }
 
     @Override
     public void save(SignaturePrint signaturePrint) {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
         template.update("update signature_print set occurrence = ?, printDate = ? where symbol = ?",
           signaturePrint.getOccurrence(), signaturePrint.getDate(), signaturePrint.getSymbol());
     }
@@ -0,0 +1,125 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.dao.event.SectorUpdateEvent;
+import com.cheddarflow.eventbus.GlobalEventBus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import com.google.common.eventbus.Subscribe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Symbol to subsector map shared by {@link TradesTable} and {@link SectorTable}. The whole sectors table is loaded
+ * on first use; symbols missing from it are looked up and then cached as having no subsector for a few minutes, or
+ * until a {@link SectorUpdateEvent} from another node says otherwise; {@link SectorTable} updates this node's cache
+ * itself.
+ */
+@Component
+public class SubsectorCache {
+
+    private static final long MISSING_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, String> subsectors = new ConcurrentHashMap<>();
+    // symbols not in the sectors table, with the time after which they are looked up again
+    private final Map<String, Long> missing = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean loaded;
+
+    @PostConstruct
+    public void subscribe() {
+        GlobalEventBus.register(this);
+    }
+
+    public String getSubsector(String symbol) {
+        this.ensureLoaded();
+        final String key = symbol.toUpperCase();
+        final String subsector = this.subsectors.get(key);
+        if (subsector != null) {
+            this.hits.increment();
+            return subsector;
+        }
+        final Long retryAt = this.missing.get(key);
+        if (retryAt != null && retryAt > System.currentTimeMillis()) {
+            this.hits.increment();
+            return "";
+        }
+        this.misses.increment();
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final List<String> found = template.queryForList("select subsector from sectors where symbol = ?", String.class,
+          symbol);
+        if (found.isEmpty()) {
+            this.missing.put(key, System.currentTimeMillis() + MISSING_TTL_MILLIS);
+            return "";
+        }
+        final String value = Optional.ofNullable(found.get(0)).orElse("");
+        this.subsectors.put(key, value);
+        this.missing.remove(key);
+        return value;
+    }
+
+    public void put(String symbol, String subsector) {
+        final String key = symbol.toUpperCase();
+        this.subsectors.put(key, Optional.ofNullable(subsector).orElse(""));
+        this.missing.remove(key);
+    }
+
+    @Subscribe
+    public void onSectorUpdate(SectorUpdateEvent event) {
+        if (event.isLocal())
+            return;
+        this.put(event.getSymbol(), event.getSubsector());
+    }
+
+    public synchronized void reload() {
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final Map<String, String> data = new ConcurrentHashMap<>();
+        template.query("select symbol, subsector from sectors", rs -> {
+            data.putIfAbsent(rs.getString(1).toUpperCase(), Optional.ofNullable(rs.getString(2)).orElse(""));
+        });
+        this.subsectors.keySet().retainAll(data.keySet());
+        this.subsectors.putAll(data);
+        this.missing.keySet().removeAll(data.keySet());
+        this.loaded = true;
+        this.logger.debug("Loaded {} subsectors", data.size());
+    }
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    public double getHitRatio() {
+        final long hits = this.hits.sum();
+        final long total = hits + this.misses.sum();
+        return total == 0 ? 0d : (double)hits / total;
+    }
+
+    public int size() {
+        return this.subsectors.size();
+    }
+
+    private void ensureLoaded() {
+        if (!this.loaded) {
+            synchronized (this) {
+                if (!this.loaded)
+                    this.reload();
+            }
+        }
+    }
+}
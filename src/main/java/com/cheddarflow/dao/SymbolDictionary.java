@@ -0,0 +1,73 @@
+package com.cheddarflow.dao;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of low-cardinality strings read by the DAOs (symbols, exchange codes, trade types and
+ * conditions). Each distinct value gets a dense int id and one canonical instance, so rows mapped throughout the day
+ * and the events broadcast from them share strings instead of holding a copy per row. Once full, values are passed
+ * through unchanged.
+ */
+public final class SymbolDictionary {
+
+    private static final SymbolDictionary INSTANCE = new SymbolDictionary();
+    private static final int MAX_ENTRIES = 1 << 20;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[1024];
+    private int size;
+
+    private SymbolDictionary() {
+    }
+
+    public static SymbolDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the canonical instance equal to the value, or null for null
+     */
+    public String intern(String value) {
+        if (value == null)
+            return null;
+        final int id = this.getId(value);
+        return id >= 0 ? this.values[id] : value;
+    }
+
+    /**
+     * @return the id of the value, assigning one if needed, or -1 if the dictionary is full
+     */
+    public int getId(String value) {
+        final Integer id = this.ids.get(value);
+        if (id != null)
+            return id;
+
+        synchronized (this) {
+            final Integer existing = this.ids.get(value);
+            if (existing != null)
+                return existing;
+            if (this.size >= MAX_ENTRIES)
+                return -1;
+
+            String[] v = this.values;
+            if (this.size == v.length) {
+                v = Arrays.copyOf(v, v.length * 2);
+                this.values = v;
+            }
+            v[this.size] = value;
+            // published through the map, so readers that find the id also see the value
+            this.ids.put(value, this.size);
+            return this.size++;
+        }
+    }
+
+    public String get(int id) {
+        return this.values[id];
+    }
+
+    public int size() {
+        return this.ids.size();
+    }
+}
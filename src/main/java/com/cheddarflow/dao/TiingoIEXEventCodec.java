@@ -0,0 +1,207 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.TiingoEventType;
+import com.cheddarflow.model.TiingoIEXEvent;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.function.Predicate;
+
+/**
+ * Delta-encoded {@code tiingo_iex_data} records. Each record is a flag byte (the five boolean columns plus format
+ * bits), a stable event type code, zig-zag varint deltas of createdOn and id against the previous record of the symbol,
+ * varint sizes, price deltas in 1/10000 ticks and the raw hash. Prices that are not a whole number of ticks are
+ * stored as raw floats so decoding is exact. Event types are coded by name, never by ordinal, so reordering or
+ * extending {@link TiingoEventType} does not change what an existing file decodes to.
+ */
+final class TiingoIEXEventCodec implements DayArchive.Codec<TiingoIEXEvent> {
+
+    // format version in the last byte; 1 stored event type ordinals
+    private static final int MAGIC = 0x54494532;
+    private static final double TICKS_PER_UNIT = 10000d;
+
+    private static final int HALTED = 1;
+    private static final int AFTER_HOURS = 1 << 1;
+    private static final int INTERMARKET_SWEEP_ORDER = 1 << 2;
+    private static final int ODD_LOT = 1 << 3;
+    private static final int SUBJECT_TO_NMS_RULE_611 = 1 << 4;
+    private static final int RAW_PRICES = 1 << 5;
+    private static final int NULL_CREATED_ON = 1 << 6;
+
+    // event type codes: 0 is null, then the names below in order, then any other type with its name stored inline;
+    // append only
+    private static final String[] EVENT_TYPE_NAMES = { "LAST_TRADE", "QUOTE" };
+    private static final int EVENT_TYPE_NAMED = EVENT_TYPE_NAMES.length + 1;
+
+    @Override
+    public int getMagic() {
+        return MAGIC;
+    }
+
+    @Override
+    public String getSymbol(TiingoIEXEvent e) {
+        return e.getSymbol();
+    }
+
+    @Override
+    public void encode(ByteBuffer b, TiingoIEXEvent e, TiingoIEXEvent previous) {
+        final State state = new State();
+        if (previous != null)
+            state.update(previous);
+
+        final float[] prices = getPrices(e);
+        boolean raw = false;
+        for (float price : prices)
+            raw |= Float.compare(fromTicks(toTicks(price)), price) != 0;
+
+        b.put((byte)((e.isHalted() ? HALTED : 0) | (e.isAfterHours() ? AFTER_HOURS : 0)
+          | (e.isIntermarketSweepOrder() ? INTERMARKET_SWEEP_ORDER : 0) | (e.isOddLot() ? ODD_LOT : 0)
+          | (e.isSubjectToNMSRule611() ? SUBJECT_TO_NMS_RULE_611 : 0) | (raw ? RAW_PRICES : 0)
+          | (e.getCreatedOn() == null ? NULL_CREATED_ON : 0)));
+        putEventType(b, e.getTiingoEventType());
+        if (e.getCreatedOn() != null)
+            putVarLong(b, zigZag(e.getCreatedOn().getTime() - state.createdOn));
+        putVarLong(b, zigZag(e.getId() - state.id));
+        putVarLong(b, zigZag(e.getBidSize()));
+        putVarLong(b, zigZag(e.getAskSize()));
+        putVarLong(b, zigZag(e.getLastSize()));
+        for (int i = 0; i < prices.length; i++) {
+            if (raw) {
+                b.putFloat(prices[i]);
+            } else {
+                putVarLong(b, zigZag(toTicks(prices[i]) - state.ticks[i]));
+            }
+        }
+        b.putInt(e.getHash());
+    }
+
+    @Override
+    public boolean decode(ByteBuffer b, String symbol, long from, long to, Predicate<TiingoIEXEvent> consumer) {
+        final State state = new State();
+        final float[] prices = new float[4];
+        while (b.hasRemaining()) {
+            final int flags = b.get();
+            final TiingoEventType eventType = getEventType(b);
+            final boolean nullCreatedOn = (flags & NULL_CREATED_ON) != 0;
+            final long createdOn = nullCreatedOn ? 0 : state.createdOn + unZigZag(getVarLong(b));
+            final long id = state.id + unZigZag(getVarLong(b));
+            final int bidSize = (int)unZigZag(getVarLong(b));
+            final int askSize = (int)unZigZag(getVarLong(b));
+            final int lastSize = (int)unZigZag(getVarLong(b));
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = (flags & RAW_PRICES) != 0 ? b.getFloat() : fromTicks(state.ticks[i] + unZigZag(getVarLong(b)));
+                state.ticks[i] = toTicks(prices[i]);
+            }
+            final int hash = b.getInt();
+            state.createdOn = createdOn;
+            state.id = id;
+
+            if (!nullCreatedOn && createdOn > to)
+                return true;
+            if (nullCreatedOn || createdOn < from)
+                continue;
+
+            final TiingoIEXEvent event = TiingoIEXEvent.newBuilder()
+              .withId(id)
+              .withSymbol(symbol)
+              .withTiingoEventType(eventType)
+              .withCreatedOn(new Date(createdOn))
+              .withBidSize(bidSize)
+              .withBidPrice(prices[0])
+              .withMidPrice(prices[1])
+              .withAskPrice(prices[2])
+              .withAskSize(askSize)
+              .withLastPrice(prices[3])
+              .withLastSize(lastSize)
+              .withHalted((flags & HALTED) != 0)
+              .withAfterHours((flags & AFTER_HOURS) != 0)
+              .withIntermarketSweepOrder((flags & INTERMARKET_SWEEP_ORDER) != 0)
+              .withOddLot((flags & ODD_LOT) != 0)
+              .withSubjectToNMSRule611((flags & SUBJECT_TO_NMS_RULE_611) != 0)
+              .withHash(hash)
+              .build();
+            if (!consumer.test(event))
+                return false;
+        }
+        return true;
+    }
+
+    private static void putEventType(ByteBuffer b, TiingoEventType eventType) {
+        if (eventType == null) {
+            putVarLong(b, 0);
+            return;
+        }
+        for (int i = 0; i < EVENT_TYPE_NAMES.length; i++) {
+            if (EVENT_TYPE_NAMES[i].equals(eventType.name())) {
+                putVarLong(b, i + 1);
+                return;
+            }
+        }
+        putVarLong(b, EVENT_TYPE_NAMED);
+        DayArchive.putString(b, eventType.name());
+    }
+
+    private static TiingoEventType getEventType(ByteBuffer b) {
+        final int code = (int)getVarLong(b);
+        if (code == 0)
+            return null;
+        return TiingoEventType.valueOf(code == EVENT_TYPE_NAMED ? DayArchive.getString(b) : EVENT_TYPE_NAMES[code - 1]);
+    }
+
+    private static float[] getPrices(TiingoIEXEvent e) {
+        return new float[] { e.getBidPrice(), e.getMidPrice(), e.getAskPrice(), e.getLastPrice() };
+    }
+
+    private static long toTicks(float price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+
+    private static float fromTicks(long ticks) {
+        return (float)(ticks / TICKS_PER_UNIT);
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void putVarLong(ByteBuffer b, long v) {
+        while ((v & ~0x7FL) != 0) {
+            b.put((byte)((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        b.put((byte)v);
+    }
+
+    private static long getVarLong(ByteBuffer b) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            final byte next = b.get();
+            v |= (long)(next & 0x7F) << shift;
+            if (next >= 0)
+                return v;
+        }
+    }
+
+    /**
+     * Values the next record is encoded against, taken from the previous record; all zero at the start of a symbol
+     * and createdOn zero after a record without one.
+     */
+    private static final class State {
+
+        private long createdOn;
+        private long id;
+        private final long[] ticks = new long[4];
+
+        void update(TiingoIEXEvent e) {
+            this.createdOn = e.getCreatedOn() != null ? e.getCreatedOn().getTime() : 0;
+            this.id = e.getId();
+            final float[] prices = getPrices(e);
+            for (int i = 0; i < prices.length; i++)
+                this.ticks[i] = toTicks(prices[i]);
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package com.cheddarflow.dao;
 
+import com.cheddarflow.dao.dto.BulkWriteResult;
 import com.cheddarflow.dao.dto.LatestIEXData;
+import com.cheddarflow.dao.dto.Page;
 import com.cheddarflow.model.TiingoIEXEvent;
 
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface TiingoIEXEventDAO {
 
     int bulkInsert(List<TiingoIEXEvent> in);
+    BulkWriteResult bulkInsert(Iterator<TiingoIEXEvent> in, int chunkSize);
 
     List<TiingoIEXEvent> listObjects(Date from, Date to, List<String> symbols);
     List<TiingoIEXEvent> listObjects(Date from, Date to, String symbol, boolean rollback, int limit);
+    Page<TiingoIEXEvent> listObjectsPage(Date from, Date to, String symbol, int pageSize, String pageToken);
+    int streamObjects(Date from, Date to, String symbol, int limit, Predicate<TiingoIEXEvent> consumer);
     List<TiingoIEXEvent> mostRecentObjects(List<String> symbols);
     LatestIEXData findLatestObject(String symbol);
     long getMaxTimestamp();
@@ -1,38 +1,61 @@
 package com.cheddarflow.dao;
 
+import com.cheddarflow.dao.dto.BulkWriteResult;
 import com.cheddarflow.dao.dto.LatestIEXData;
-import com.cheddarflow.jdbc.JdbcTemplates;
+import com.cheddarflow.dao.dto.Page;
 import com.cheddarflow.jdbc.NoDataInRangeException;
 import com.cheddarflow.model.TiingoEventType;
 import com.cheddarflow.model.TiingoIEXEvent;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.checkerframework.checker.units.qual.s;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements TiingoIEXEventDAO {
 
+    private static final String INSERT_PREFIX = "insert ignore into tiingo_iex_data (symbol, tiingoEventType, createdOn, "
+      + "bidSize, bidPrice, midPrice, askPrice, askSize, lastPrice, lastSize, halted, afterHours, intermarketSweepOrder, oddLot, "
+      + "subjectToNMSRule611, hash) values ";
+    private static final String INSERT_SQL = INSERT_PREFIX + "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_COLUMNS = 16;
+    private static final long DEFAULT_LATEST_QUOTE_STALENESS_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // rows committed late by other nodes, or stamped by a clock behind ours, are still caught by the next load
+    private static final long LATEST_QUOTE_OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String LATEST_QUOTES_SQL = "select a.* from tiingo_iex_data a inner join (select symbol, "
+      + "max(createdOn) as createdOn from tiingo_iex_data where createdOn >= ? group by symbol) m "
+      + "on a.symbol = m.symbol and a.createdOn = m.createdOn";
+
+    private final SymbolDictionary symbols = SymbolDictionary.getInstance();
+
     private final RowMapper<TiingoIEXEvent> rowMapper = (rs, i) -> TiingoIEXEvent.newBuilder()
       .withId(rs.getLong("id"))
-      .withSymbol(rs.getString("symbol"))
+      .withSymbol(this.symbols.intern(rs.getString("symbol")))
       .withTiingoEventType(TiingoEventType.valueOf(rs.getString("tiingoEventType")))
       .withCreatedOn(rs.getTimestamp("createdOn"))
       .withBidSize(rs.getInt("bidSize"))
@@ -50,31 +73,52 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
       .withHash(rs.getInt("hash"))
       .build();
 
-    private final RowMapper<LatestIEXData> latestRowMapper = (rs, i) -> {
-        final TiingoIEXEvent event = TiingoIEXEvent.newBuilder()
-          .withId(rs.getLong("id"))
-          .withSymbol(rs.getString("symbol"))
-          .withTiingoEventType(TiingoEventType.valueOf(rs.getString("tiingoEventType")))
-          .withCreatedOn(rs.getTimestamp("createdOn"))
-          .withBidSize(rs.getInt("bidSize"))
-          .withBidPrice(rs.getFloat("bidPrice"))
-          .withMidPrice(rs.getFloat("midPrice"))
-          .withAskPrice(rs.getFloat("askPrice"))
-          .withAskSize(rs.getInt("askSize"))
-          .withLastPrice(rs.getFloat("lastPrice"))
-          .withLastSize(rs.getInt("lastSize"))
-          .withHalted(rs.getInt("halted") == 1)
-          .withAfterHours(rs.getInt("afterHours") == 1)
-          .withIntermarketSweepOrder(rs.getInt("intermarketSweepOrder") == 1)
-          .withOddLot(rs.getInt("oddLot") == 1)
-          .withSubjectToNMSRule611(rs.getInt("subjectToNMSRule611") == 1)
-          .withHash(rs.getInt("hash"))
-          .build();
-        return new LatestIEXData(event, 0f);
-    };
-
-    public TiingoIEXEventTable() {
-        super(null);
+    private final ChunkedBatchWriter<TiingoIEXEvent> batchWriter =
+      new ChunkedBatchWriter<>(this.getClass().getSimpleName(), INSERT_SQL, this::getBatchParameters,
+        task -> this.getExecutor().execute(task));
+    private final MultiRowInsertWriter multiRowWriter = new MultiRowInsertWriter(INSERT_PREFIX, INSERT_COLUMNS);
+    private volatile boolean multiRowInsert;
+    private final LatestQuoteStore latestQuotes = new LatestQuoteStore(DEFAULT_LATEST_QUOTE_STALENESS_MILLIS);
+
+    private final DailyCloseDAO dailyCloseDAO;
+    private final LatestDateTracker latestDates;
+
+    private volatile DayArchive<TiingoIEXEvent> archive;
+
+    @Autowired
+    public TiingoIEXEventTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor,
+      DailyCloseDAO dailyCloseDAO, LatestDateTracker latestDates) {
+        super(taskExecutor);
+        this.dailyCloseDAO = dailyCloseDAO;
+        this.latestDates = latestDates;
+    }
+
+    public void setMultiRowInsert(boolean multiRowInsert) {
+        this.multiRowInsert = multiRowInsert;
+    }
+
+    /**
+     * Serves closed days that have been archived with {@link #archiveDay(Date, boolean)} from delta-encoded segment
+     * files under the directory instead of MySQL.
+     */
+    public void enableArchive(Path directory) {
+        this.archive = new DayArchive<>(directory, "tiingo_iex_data", new TiingoIEXEventCodec());
+    }
+
+    public void disableArchive() {
+        this.archive = null;
+    }
+
+    /**
+     * Copies a closed trading day into the segment archive, optionally deleting it from MySQL afterwards.
+     *
+     * @return the number of records archived
+     */
+    public int archiveDay(Date day, boolean purge) throws IOException {
+        final DayArchive<TiingoIEXEvent> archive = this.archive;
+        if (archive == null)
+            throw new IllegalStateException("Archive is not enabled");
+        return this.archiveDay(archive, "tiingo_iex_data", day, purge, this.rowMapper);
     }
 
     @Override
@@ -83,14 +127,29 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
         if (params.isEmpty())
             return 0;
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
-        final String insertOp = "insert ignore into tiingo_iex_data (symbol, tiingoEventType, createdOn, bidSize, bidPrice, "
-          + "midPrice, askPrice, askSize, lastPrice, lastSize, halted, afterHours, intermarketSweepOrder, oddLot, "
-          + "subjectToNMSRule611, hash) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        final int[] num = template.batchUpdate(insertOp, params);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        final int num = this.multiRowInsert ? this.multiRowWriter.write(template, params)
+          : IntStream.of(template.batchUpdate(INSERT_SQL, params)).sum();
+
+        in.forEach(this.latestQuotes::update);
+        this.advanceLatestDate(in);
 
         this.logger.trace("Pushed {} records to {}", params.size(), this.getClass().getSimpleName());
-        return IntStream.of(num).sum();
+        return num;
+    }
+
+    @Override
+    public BulkWriteResult bulkInsert(Iterator<TiingoIEXEvent> in, int chunkSize) {
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        return this.batchWriter.write(template, in, chunkSize, chunk -> {
+            chunk.forEach(this.latestQuotes::update);
+            this.advanceLatestDate(chunk);
+        });
+    }
+
+    private void advanceLatestDate(List<TiingoIEXEvent> in) {
+        in.stream().map(TiingoIEXEvent::getCreatedOn).filter(Objects::nonNull).max(Date::compareTo)
+          .ifPresent(d -> this.latestDates.advance("tiingo_iex_data", d));
     }
 
     private List<Object[]> getBatchParameters(List<TiingoIEXEvent> input) {
@@ -124,17 +183,42 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
             to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
         }
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final List<String> symbols = symbolList != null && !symbolList.isEmpty()
+          ? symbolList.stream().filter(s -> !s.isBlank()).map(String::toUpperCase).collect(Collectors.toList()) : null;
+        final List<TiingoIEXEvent> archived = new ArrayList<>();
+        final Date liveFrom = this.readArchive(this.archive, symbols, from, to, archived::add);
+        if (liveFrom.after(to)) {
+            archived.sort(Comparator.comparing(TiingoIEXEvent::getCreatedOn).reversed());
+            return archived;
+        }
+
+        final List<TiingoIEXEvent> live;
+        if (this.isFanOut(symbols)) {
+            final Date liveTo = to;
+            live = this.fanOut(symbols, 0, s -> this.listLiveObjects(liveFrom, liveTo, List.of(s), template),
+              TiingoIEXEvent::getCreatedOn);
+        } else {
+            live = this.listLiveObjects(liveFrom, to, symbols, template);
+        }
+        if (archived.isEmpty())
+            return live;
+        archived.sort(Comparator.comparing(TiingoIEXEvent::getCreatedOn).reversed());
+        live.addAll(archived);
+        return live;
+    }
+
+    private List<TiingoIEXEvent> listLiveObjects(Date from, Date to, List<String> symbols, JdbcTemplate template) {
         final List<Object> params = new ArrayList<>(Arrays.asList(from, to));
 
         String query = "select t.* from tiingo_iex_data t inner join symbols s on t.symbol = s.symbol where t.createdOn between ? and ?";
 
-        if (symbolList != null && !symbolList.isEmpty()) {
-            params.addAll(symbolList.stream().filter(s -> !s.isBlank()).map(String::toUpperCase).collect(Collectors.toList()));
-            if (symbolList.size() == 1) {
+        if (symbols != null) {
+            params.addAll(symbols);
+            if (symbols.size() == 1) {
                 query = query + " and s.symbol = ?";
             } else {
-                query = query + " and s.symbol in (" + this.getParamString(symbolList) + ")";
+                query = query + " and s.symbol in (" + this.getParamString(symbols) + ")";
             }
         }
 
@@ -148,58 +232,62 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
         if (symbols == null || symbols.isEmpty())
             return Collections.emptyList();
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
-        final StringBuilder builder =
-          new StringBuilder("select * from (select * from tiingo_iex_data where symbol = ? order by createdOn desc limit 1) b ");
-        final int size = symbols.size();
-        if (size > 1) {
-            builder.append(
-              " union (select * from tiingo_iex_data where symbol = ? order by createdOn desc limit 1) ".repeat(size - 1));
-        }
-        return template.query(builder.toString(), this.rowMapper, symbols.toArray(new Object[0]));
+        final LatestQuoteStore store = this.getLatestQuotes();
+        return symbols.stream().map(store::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
     public LatestIEXData findLatestObject(String symbol) {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
-
-        String sql = "SELECT a.* FROM tiingo_iex_data a inner join symbols s on a.symbol = s.symbol and a.id = s.id "
-          + "WHERE s.symbol = ? LIMIT 1";
-        final LatestIEXData data;
-        try {
-            data = template.queryForObject(sql, this.latestRowMapper, symbol);
-            if (data == null) {
-                return null;
-            }
-        } catch (EmptyResultDataAccessException e) {
+        final TiingoIEXEvent event = this.getLatestQuotes().get(symbol);
+        if (event == null)
             return null;
-        }
 
-        final Calendar calendar = Calendar.getInstance();
-        calendar.setTime(data.getIexEvent().getCreatedOn());
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        final Date end = calendar.getTime();
-        if (calendar.get(Calendar.DAY_OF_WEEK) == Calendar.MONDAY) {
-            calendar.add(Calendar.DAY_OF_YEAR, -3);
-        } else {
-            calendar.add(Calendar.DAY_OF_YEAR, -1);
+        final LatestIEXData data = new LatestIEXData(event, 0f);
+        final Float prevClose = this.getPrevClose(symbol, event.getCreatedOn());
+        if (prevClose != null) {
+            data.setPrevClose(prevClose);
         }
-        final Date start = calendar.getTime();
+        return data;
+    }
 
-        sql = "select b.lastPrice FROM tiingo_iex_data b inner join symbols s on b.symbol = s.symbol WHERE s.symbol = ? "
-          + "and b.createdOn between ? and ? and b.tiingoEventType = ? ORDER BY b.createdOn DESC LIMIT 1";
-        try {
-            final Float prevClose =
-              template.queryForObject(sql, Float.class, symbol, start, end, TiingoEventType.LAST_TRADE.name());
-            if (prevClose != null) {
-                data.setPrevClose(prevClose);
+    public void setLatestQuoteStaleness(long maxStalenessMillis) {
+        this.latestQuotes.setMaxStalenessMillis(maxStalenessMillis);
+    }
+
+    private LatestQuoteStore getLatestQuotes() {
+        if (this.latestQuotes.isStale()) {
+            synchronized (this.latestQuotes) {
+                if (this.latestQuotes.isStale()) {
+                    // the newest row of each symbol in tiingo_iex_data, as the per-symbol lookups it replaces read
+                    final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+                    final long startedAt = System.currentTimeMillis();
+                    if (this.latestQuotes.isFullLoadDue()) {
+                        this.latestQuotes.load(template.query(LATEST_QUOTES_SQL, this.rowMapper, new Date(0)), startedAt);
+                    } else {
+                        final Date since = new Date(this.latestQuotes.getLoadedAt() - LATEST_QUOTE_OVERLAP_MILLIS);
+                        this.latestQuotes.loadSince(template.query(LATEST_QUOTES_SQL, this.rowMapper, since), startedAt);
+                    }
+                }
             }
-        } catch (EmptyResultDataAccessException ignored) {}
+        }
+        return this.latestQuotes;
+    }
 
-        return data;
+    private Float getPrevClose(String symbol, Date createdOn) {
+        final Date end = TradingCalendar.getDayStart(createdOn);
+        final Date start = this.dailyCloseDAO.getPreviousTradingDay(end);
+        final Float close = this.dailyCloseDAO.getClose(symbol, start);
+        if (close != null)
+            return close;
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final String sql = "select b.lastPrice FROM tiingo_iex_data b inner join symbols s on b.symbol = s.symbol "
+          + "WHERE s.symbol = ? and b.createdOn between ? and ? and b.tiingoEventType = ? ORDER BY b.createdOn DESC LIMIT 1";
+        try {
+            return template.queryForObject(sql, Float.class, symbol, start, end, TiingoEventType.LAST_TRADE.name());
+        } catch (EmptyResultDataAccessException ignored) {
+            return null;
+        }
     }
 
     @Override
@@ -208,13 +296,12 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
             to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
         }
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         final List<TiingoIEXEvent> data = this.doListObjects(symbol, from, to, template, limit);
         if (data.isEmpty() && rollback) {
             final Date rollbackDate = new Date(from.getTime() - TimeUnit.DAYS.toMillis(7));
             try {
-                Date minDate = template.queryForObject("select max(createdOn) from tiingo_iex_data"
-                  + " where createdOn >= ?", new Object[] { rollbackDate }, Date.class);
+                Date minDate = this.getLatestDate(this.latestDates, template, "tiingo_iex_data", "createdOn", rollbackDate);
                 if (minDate != null) {
                     Calendar c = Calendar.getInstance();
                     c.setTime(minDate);
@@ -236,14 +323,98 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
     }
 
     private List<TiingoIEXEvent> doListObjects(String symbol, Date from, Date to, JdbcTemplate template, int limit) {
-        final List<Object> params = new ArrayList<>(Arrays.asList(from, to));
+        final Date liveFrom = this.getArchivedUntil(this.archive, from, to);
+        if (liveFrom == from)
+            return this.doListLiveObjects(symbol, from, to, template, limit);
+        if (limit > 0) {
+            // the newest rows are live, so archived days are only read, newest first, for what the live rows leave
+            final List<TiingoIEXEvent> rows = liveFrom.after(to) ? new ArrayList<>()
+              : new ArrayList<>(this.doListLiveObjects(symbol, liveFrom, to, template, limit));
+            this.readArchiveNewest(this.archive, this.getSymbols(symbol), from, to, liveFrom, limit,
+              Comparator.comparing(TiingoIEXEvent::getCreatedOn).reversed(), e -> true, rows);
+            return rows;
+        }
+        final List<TiingoIEXEvent> archived = new ArrayList<>();
+        this.readArchive(this.archive, this.getSymbols(symbol), from, to, archived::add);
+        final List<TiingoIEXEvent> live = liveFrom.after(to) ? Collections.emptyList()
+          : this.doListLiveObjects(symbol, liveFrom, to, template, limit);
+        return this.mergeArchived(archived, live, TiingoIEXEvent::getCreatedOn);
+    }
+
+    private List<TiingoIEXEvent> doListLiveObjects(String symbol, Date from, Date to, JdbcTemplate template, int limit) {
+        final List<String> symbols = this.getSymbols(symbol);
+        if (this.isFanOut(symbols)) {
+            return this.fanOut(symbols, limit, s -> this.queryLiveObjects(s, from, to, template, limit, true),
+              TiingoIEXEvent::getCreatedOn);
+        }
+        return this.queryLiveObjects(symbol, from, to, template, limit, false);
+    }
+
+    private List<TiingoIEXEvent> queryLiveObjects(String symbol, Date from, Date to, JdbcTemplate template, int limit,
+      boolean ordered) {
+        final List<Object> params = new ArrayList<>();
+        String query = this.getListQuery(symbol, from, to, limit, params);
+        if (ordered && limit <= 0)
+            query += " order by t.createdOn desc";
+        return template.query(query, this.rowMapper, params.toArray(new Object[0]));
+    }
+
+    @Override
+    public int streamObjects(Date from, Date to, String symbol, int limit, Predicate<TiingoIEXEvent> consumer) {
+        if (from.equals(to)) {
+            to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        if (limit > 0 && this.archive != null) {
+            // the limit keeps the newest rows, which are read newest first rather than in ascending order
+            int count = 0;
+            for (TiingoIEXEvent e : this.doListObjects(symbol, from, to, template, limit)) {
+                count++;
+                if (!consumer.test(e))
+                    break;
+            }
+            return count;
+        }
+
+        final int[] archived = new int[1];
+        final Date liveFrom = this.readArchive(this.archive, this.getSymbols(symbol), from, to, e -> {
+            archived[0]++;
+            return consumer.test(e);
+        });
+        if (liveFrom.after(to))
+            return archived[0];
+
+        final List<Object> params = new ArrayList<>();
+        final String query = this.getListQuery(symbol, liveFrom, to, limit, params);
+        return archived[0] + this.stream(template, query, params.toArray(new Object[0]), this.rowMapper, consumer);
+    }
+
+    @Override
+    public Page<TiingoIEXEvent> listObjectsPage(Date from, Date to, String symbol, int pageSize, String pageToken) {
+        if (from.equals(to)) {
+            to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final Date liveFrom = this.getArchivedUntil(this.archive, from, to);
+        final Date liveTo = to;
+        return this.queryPage(this.archive, this.getSymbols(symbol), from, to, liveFrom, () -> {
+            final List<Object> params = new ArrayList<>();
+            final String query = this.getListQuery(symbol, liveFrom, liveTo, 0, params);
+            return this.queryPage(template, query, params, "t", "createdOn", pageSize, pageToken, this.rowMapper,
+              TiingoIEXEvent::getCreatedOn, TiingoIEXEvent::getId);
+        }, pageSize, pageToken, TiingoIEXEvent::getCreatedOn, TiingoIEXEvent::getId);
+    }
+
+    private String getListQuery(String symbol, Date from, Date to, int limit, List<Object> params) {
+        params.addAll(Arrays.asList(from, to));
 
         String query = "select t.* from tiingo_iex_data t inner join symbols s on t.symbol = s.symbol where t.createdOn between ? and ?";
 
         if (symbol != null) {
             String[] symbols = symbol.split(",");
-            params.addAll(Arrays.stream(symbols).map(String::trim).filter(s -> !s.isBlank()).map(String::toUpperCase)
-              .collect(Collectors.toList()));
+            params.addAll(this.getSymbols(symbol));
             if (symbols.length == 1) {
                 query = query + " and s.symbol = ?";
             } else {
@@ -254,12 +425,19 @@ public class TiingoIEXEventTable extends AbstractDAO<TiingoIEXEvent> implements
         if (limit > 0)
             query += " order by t.createdOn desc limit " + limit;
 
-        return template.query(query, this.rowMapper, params.toArray(new Object[0]));
+        return query;
+    }
+
+    private List<String> getSymbols(String symbol) {
+        if (symbol == null)
+            return null;
+        return Arrays.stream(symbol.split(",")).map(String::trim).filter(s -> !s.isBlank()).map(String::toUpperCase)
+          .collect(Collectors.toList());
     }
 
     @Override
     public long getMaxTimestamp() {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         try {
             final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
             calendar.add(Calendar.DAY_OF_YEAR, -7);
@@ -0,0 +1,105 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.DXTimeAndSale;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.function.Predicate;
+
+/**
+ * Fixed-width {@code time_and_sale} records with length-prefixed strings. Records before the range are skipped
+ * without decoding their strings.
+ */
+final class TimeAndSaleCodec implements DayArchive.Codec<DXTimeAndSale> {
+
+    private static final int MAGIC = 0x54415331;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int SPREAD_LEG = 1;
+    private static final int EXTENDED_TRADING_HOURS = 1 << 1;
+    private static final int VALID_TICK = 1 << 2;
+    private static final int LATE_SIGNATURE = 1 << 3;
+
+    @Override
+    public int getMagic() {
+        return MAGIC;
+    }
+
+    @Override
+    public String getSymbol(DXTimeAndSale t) {
+        return t.getSymbol();
+    }
+
+    @Override
+    public void encode(ByteBuffer b, DXTimeAndSale t, DXTimeAndSale previous) {
+        b.putLong(t.getCreatedOn() != null ? t.getCreatedOn().getTime() : NULL_TIME);
+        b.putLong(t.getReceivedOn() != null ? t.getReceivedOn().getTime() : NULL_TIME);
+        b.putLong(t.getId());
+        b.putLong(t.getIndex());
+        b.putDouble(t.getSize());
+        b.putDouble(t.getRoundedPrice());
+        b.putDouble(t.getBidPrice());
+        b.putDouble(t.getAskPrice());
+        b.putInt(t.getSignaturePrint());
+        b.put((byte)((t.isSpreadLeg() ? SPREAD_LEG : 0) | (t.isExtendedTradingHours() ? EXTENDED_TRADING_HOURS : 0)
+          | (t.isValidTick() ? VALID_TICK : 0) | (t.isLateSignature() ? LATE_SIGNATURE : 0)));
+        DayArchive.putString(b, t.getExchangeCode());
+        DayArchive.putString(b, t.getExchangeSaleConditions());
+        DayArchive.putString(b, t.getAggressorSide());
+        DayArchive.putString(b, t.getType());
+        DayArchive.putString(b, t.getTradeThroughExempt());
+    }
+
+    @Override
+    public boolean decode(ByteBuffer b, String symbol, long from, long to, Predicate<DXTimeAndSale> consumer) {
+        while (b.hasRemaining()) {
+            final long createdOn = b.getLong();
+            if (createdOn > to)
+                return true;
+            if (createdOn < from) {
+                skipRecord(b);
+                continue;
+            }
+            if (!consumer.test(readRecord(b, symbol, createdOn)))
+                return false;
+        }
+        return true;
+    }
+
+    private static DXTimeAndSale readRecord(ByteBuffer b, String symbol, long createdOn) {
+        final long receivedOn = b.getLong();
+        final DXTimeAndSale.Builder builder = DXTimeAndSale.newBuilder()
+          .withSymbol(symbol)
+          .withCreatedOn(createdOn != NULL_TIME ? new Date(createdOn) : null)
+          .withReceivedOn(receivedOn != NULL_TIME ? new Date(receivedOn) : null)
+          .withId(b.getLong())
+          .withIndex(b.getLong())
+          .withSize(b.getDouble())
+          .withPrice(b.getDouble())
+          .withBidPrice(b.getDouble())
+          .withAskPrice(b.getDouble())
+          .withSignaturePrint(b.getInt());
+        final int flags = b.get();
+        return builder
+          .withSpreadLeg((flags & SPREAD_LEG) != 0)
+          .withExtendedTradingHours((flags & EXTENDED_TRADING_HOURS) != 0)
+          .withValidTick((flags & VALID_TICK) != 0)
+          .withLateSignature((flags & LATE_SIGNATURE) != 0)
+          .withExchangeCode(DayArchive.getString(b))
+          .withExchangeSaleConditions(DayArchive.getString(b))
+          .withAggressorSide(DayArchive.getString(b))
+          .withType(DayArchive.getString(b))
+          .withTradeThroughExempt(DayArchive.getString(b))
+          .build();
+    }
+
+    private static void skipRecord(ByteBuffer b) {
+        // receivedOn, id, index, 4 doubles, signaturePrint, flags
+        b.position(b.position() + 8 * 7 + 4 + 1);
+        for (int i = 0; i < 5; i++) {
+            final short length = b.getShort();
+            if (length > 0)
+                b.position(b.position() + length);
+        }
+    }
+}
@@ -1,17 +1,23 @@
 package com.cheddarflow.dao;
 
+import com.cheddarflow.dao.dto.Page;
 import com.cheddarflow.model.MarketData;
 import com.cheddarflow.model.MarketDataInput;
 import com.cheddarflow.model.PutCallSummary;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 public interface TradesDAO {
 
     PutCallSummary getPutCallSummary(Date from, Date to, String symbolSearch);
     MarketData getMarketData(Date date, int tradeid);
     List<MarketData> getMarketData(Date from, Date to, String symbol, int limit);
+    Page<MarketData> getMarketDataPage(Date from, Date to, String symbol, int pageSize, String pageToken);
+    int streamMarketData(Date from, Date to, String symbol, int limit, Predicate<MarketData> consumer);
     boolean setMarketData(MarketDataInput in);
+    CompletableFuture<Boolean> submitMarketData(MarketDataInput in);
     long getMaxTimestamp();
 }
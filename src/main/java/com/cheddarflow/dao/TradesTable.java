@@ -1,6 +1,7 @@
 package com.cheddarflow.dao;
 
-import com.cheddarflow.jdbc.JdbcTemplates;
+import com.cheddarflow.dao.dto.Page;
+import com.cheddarflow.dao.event.MarketDataUpdateEvent;
 import com.cheddarflow.model.MarketData;
 import com.cheddarflow.model.MarketDataInput;
 import com.cheddarflow.model.PutCallSummary;
@@ -13,24 +14,45 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Repository
 public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
 
-    private final RowMapper<MarketData> marketDataRowMapper = new MarketDataRowMapper();
+    private static final String INSERT_SQL = "INSERT INTO trades ("
+      + "tradeid, size, symbol, expiry, strike, type, price, side, exch, volume, "
+      + "cond, ivol, ivolchg, ivolchgpct, delta, deltadollar, spot, spotchg, vega, vegadollar, theta, "
+      + "bidprice, bidsize, askprice, asksize, notional, oi, sentiment, pc, thirdfriday, otm, events, section, subsector, "
+      + "timestamp, date, time, unusual, highlyunusual) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,"
+      + " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final long DEDUP_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(1);
+
     private final RowMapper<List<Integer>> summaryRowMapper = (rs, rowNum) -> {
         final List<Integer> list = new ArrayList<>(2);
         list.add(rs.getInt(1));
@@ -38,9 +60,24 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
         return list;
     };
 
+    private volatile WriteBehindQueue<MarketDataInput> writeBehindQueue;
+    private DataSource batchDataSource;
+    private TransactionTemplate batchTransactions;
+    private final RecentTradeFilter tradeFilter = new RecentTradeFilter(DEDUP_WINDOW_MILLIS);
+    private volatile boolean tradeFilterWarm;
+    private volatile boolean tradeFilterEnabled;
+    private final PutCallAccumulator putCallAccumulator = new PutCallAccumulator();
+    private volatile boolean livePutCallSummary;
+    private volatile long putCallReconcileMillis;
+    // inserts hold the read side while they write and record trades, a seed of the accumulator the write side
+    private final ReadWriteLock putCallLock = new ReentrantReadWriteLock();
+
+    private final SubsectorCache subsectorCache;
+
     @Autowired
-    public TradesTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor) {
-        super(taskExecutor);
+    public TradesTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor, SubsectorCache subsectorCache) {
+        super(taskExecutor, MarketData.class, MarketData::getSymbol, MarketDataUpdateEvent::new);
+        this.subsectorCache = subsectorCache;
     }
 
     @Override
@@ -49,36 +86,39 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
             to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
         }
 
+        final List<String> symbols = symbolSearch == null ? null : Arrays.stream(symbolSearch.split(","))
+          .map(String::trim).filter(s -> !s.isBlank()).collect(Collectors.toList());
+
         final PutCallSummary summary = new PutCallSummary();
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final long dayStart = getDayStart(new Date());
+        if (this.livePutCallSummary && from.getTime() == dayStart && to.getTime() >= System.currentTimeMillis()) {
+            final long[] sizes = this.getPutCallAccumulator(dayStart).sum(symbols);
+            summary.setPutCount((int)sizes[0]);
+            summary.setCallCount((int)sizes[1]);
+            return summary;
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
 
         final List<Object> params = new ArrayList<>();
         params.add(from);
         params.add(to);
 
-        final String symbol;
-        if (symbolSearch != null) {
-            String[] symbols = symbolSearch.split(",");
-            params.addAll(Arrays.stream(symbols).map(String::trim).filter(s -> !s.isBlank()).collect(Collectors.toList()));
-            params.add(from);
-            params.add(to);
-            params.addAll(Arrays.asList(symbols));
-            if (symbols.length == 1) {
+        String symbol = "";
+        if (symbols != null && !symbols.isEmpty()) {
+            params.addAll(symbols);
+            if (symbols.size() == 1) {
                 symbol = " and symbol = ?";
             } else {
                 symbol = " and symbol in (" + this.getParamString(symbols) + ")";
             }
-        } else {
-            params.add(from);
-            params.add(to);
-            symbol = "";
         }
 
         List<Integer> sizes = template.queryForObject(
-          "select (select sum(size) from trades where timestamp between ? and ? "
-            + " and PC = 'P' and side > 0 " + symbol + ") as puts, (select sum(size) from trades where timestamp between ? and ? "
-            + " and PC = 'C' and side > 0 " + symbol + ") as calls from dual", params.toArray(new Object[0]),
+          "select coalesce(sum(case when PC = 'P' then size else 0 end), 0) as puts, "
+            + "coalesce(sum(case when PC = 'C' then size else 0 end), 0) as calls from trades "
+            + "where timestamp between ? and ? and side > 0 and PC in ('P', 'C')" + symbol, params.toArray(new Object[0]),
           this.summaryRowMapper);
 
         if (sizes != null) {
@@ -89,12 +129,83 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
         return summary;
     }
 
+    public void setLivePutCallSummary(boolean livePutCallSummary) {
+        this.setLivePutCallSummary(livePutCallSummary, 0);
+    }
+
+    /**
+     * Serves today's put/call summary from a counter seeded from the database and advanced by the trades this node
+     * inserts. Trades inserted by other nodes are only counted when the counter is re-seeded, which happens every
+     * {@code reconcileMillis}, or once a day when it is 0; with more than one writer, set an interval. Local inserts
+     * only wait while the seed reads its id watermark, not for the seed query.
+     */
+    public void setLivePutCallSummary(boolean livePutCallSummary, long reconcileMillis) {
+        this.putCallReconcileMillis = reconcileMillis;
+        this.livePutCallSummary = livePutCallSummary;
+    }
+
+    private PutCallAccumulator getPutCallAccumulator(long dayStart) {
+        if (this.isPutCallSeedDue(dayStart)) {
+            synchronized (this.putCallAccumulator) {
+                if (this.isPutCallSeedDue(dayStart)) {
+                    // inserts are held off only while the watermark is read; the ones after it are collected by the
+                    // accumulator and the seed query counts those up to it, from the primary so none are missed
+                    final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+                    final long watermark;
+                    this.putCallLock.writeLock().lock();
+                    try {
+                        watermark = template.queryForObject("select coalesce(max(id), 0) from trades", Long.class);
+                        this.putCallAccumulator.begin(dayStart);
+                    } finally {
+                        this.putCallLock.writeLock().unlock();
+                    }
+                    try {
+                        final Map<String, long[]> sizes = new HashMap<>();
+                        template.query("select symbol, "
+                          + "coalesce(sum(case when PC = 'P' then size else 0 end), 0), "
+                          + "coalesce(sum(case when PC = 'C' then size else 0 end), 0) from trades "
+                          + "where timestamp >= ? and id <= ? and side > 0 and PC in ('P', 'C') group by symbol", rs -> {
+                            sizes.put(rs.getString(1), new long[] { rs.getLong(2), rs.getLong(3) });
+                        }, new Date(dayStart), watermark);
+                        this.putCallAccumulator.complete(sizes);
+                    } catch (RuntimeException e) {
+                        this.putCallAccumulator.abort();
+                        throw e;
+                    }
+                }
+            }
+        }
+        return this.putCallAccumulator;
+    }
+
+    private boolean isPutCallSeedDue(long dayStart) {
+        final long reconcileMillis = this.putCallReconcileMillis;
+        return this.putCallAccumulator.getDayStart() != dayStart
+          || reconcileMillis > 0 && System.currentTimeMillis() - this.putCallAccumulator.getSeededAt() >= reconcileMillis;
+    }
+
+    private void recordPutCall(MarketDataInput in) {
+        if (this.livePutCallSummary && in.side > 0) {
+            this.putCallAccumulator.add(getDayStart(in.timestamp), in.symbol, in.pc, in.size);
+        }
+    }
+
+    private static long getDayStart(Date date) {
+        final Calendar c = Calendar.getInstance();
+        c.setTime(date);
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        return c.getTimeInMillis();
+    }
+
     @Override
     public MarketData getMarketData(Date date, int tradeid) {
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         final List<MarketData> data = template.query("select t.* from trades t where t.timestamp = ? AND t.tradeid = ?",
-          new Object[] { date, tradeid}, this.marketDataRowMapper);
+          new Object[] { date, tradeid}, new MarketDataRowMapper());
 
         return !data.isEmpty() ? data.get(0) : null;
     }
@@ -105,9 +216,54 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
             to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
         }
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final List<String> symbols = symbol == null ? null : Arrays.stream(symbol.split(",")).map(String::trim)
+          .filter(s -> !s.isBlank()).map(String::toUpperCase).collect(Collectors.toList());
+        if (this.isFanOut(symbols)) {
+            final Date start = from;
+            final Date end = to;
+            return this.fanOut(symbols, limit, s -> this.queryMarketData(template, start, end, s, limit, true),
+              MarketData::getTimestamp);
+        }
+        return this.queryMarketData(template, from, to, symbol, limit, false);
+    }
+
+    private List<MarketData> queryMarketData(JdbcTemplate template, Date from, Date to, String symbol, int limit,
+      boolean ordered) {
+        final List<Object> params = new ArrayList<>();
+        String query = this.getMarketDataQuery(from, to, symbol, limit, params);
+        if (ordered && limit <= 0)
+            query += " order by t.timestamp desc";
+        return template.query(query, params.toArray(new Object[0]), new MarketDataRowMapper());
+    }
+
+    @Override
+    public int streamMarketData(Date from, Date to, String symbol, int limit, Predicate<MarketData> consumer) {
+        if (from.equals(to)) {
+            to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final List<Object> params = new ArrayList<>();
+        final String query = this.getMarketDataQuery(from, to, symbol, limit, params);
+        return this.stream(template, query, params.toArray(new Object[0]), new MarketDataRowMapper(), consumer);
+    }
+
+    @Override
+    public Page<MarketData> getMarketDataPage(Date from, Date to, String symbol, int pageSize, String pageToken) {
+        if (from.equals(to)) {
+            to = new Date(to.getTime() + TimeUnit.DAYS.toMillis(1));
+        }
+
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+        final List<Object> params = new ArrayList<>();
+        final String query = this.getMarketDataQuery(from, to, symbol, 0, params);
+        return this.queryPage(template, query, params, "t", "timestamp", pageSize, pageToken, new MarketDataRowMapper(),
+          MarketData::getTimestamp, MarketData::getId);
+    }
 
-        final List<Object> params = new ArrayList<>(Arrays.asList(from, to, 0));
+    private String getMarketDataQuery(Date from, Date to, String symbol, int limit, List<Object> params) {
+        params.addAll(Arrays.asList(from, to, 0));
 
         String query = "select t.* from trades t where t.timestamp between ? and ? and t.side > ?";
 
@@ -125,36 +281,225 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
         if (limit > 0)
             query += " order by t.timestamp desc limit " + limit;
 
-        return template.query(query, params.toArray(new Object[0]), this.marketDataRowMapper);
+        return query;
     }
 
     @Override
     public boolean setMarketData(MarketDataInput in) {
         if (in.side <= -2) return false;
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
-        final List<Integer> existing = template.query("select id from trades where timestamp = ? and tradeid = ?",
-          new Object[] { in.timestamp, in.tradeid }, (rs, i) -> rs.getInt(1));
-        if (!existing.isEmpty())
-            return false;
-
-        final List<String> subsectors = template.queryForList("select subsector from sectors where symbol = ?",
-          new Object[] { in.symbol }, String.class);
-        final String subsector = subsectors.isEmpty() ? "" : subsectors.get(0);
-
-        String insertOp = "INSERT INTO trades ("
-          + "tradeid, size, symbol, expiry, strike, type, price, side, exch, volume, "
-          + "cond, ivol, ivolchg, ivolchgpct, delta, deltadollar, spot, spotchg, vega, vegadollar, theta, "
-          + "bidprice, bidsize, askprice, asksize, notional, oi, sentiment, pc, thirdfriday, otm, events, section, subsector, "
-          + "timestamp, date, time, unusual, highlyunusual) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,"
-          + " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        template.update(insertOp, in.tradeid, in.size, in.symbol, in.expiry, in.strike, in.type, in.getRoundedPrice(), in.side,
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        final RecentTradeFilter filter = this.getTradeFilter();
+        if (filter == null || !filter.isDefinitelyNew(in.timestamp, in.tradeid)) {
+            final List<Integer> existing = template.query("select id from trades where timestamp = ? and tradeid = ?",
+              new Object[] { in.timestamp, in.tradeid }, (rs, i) -> rs.getInt(1));
+            if (!existing.isEmpty())
+                return false;
+        }
+
+        final String subsector = this.subsectorCache.getSubsector(in.symbol);
+
+        this.putCallLock.readLock().lock();
+        try {
+            template.update(INSERT_SQL, this.getInsertParams(in, subsector));
+            if (filter != null)
+                filter.add(in.timestamp, in.tradeid);
+            this.recordPutCall(in);
+        } finally {
+            this.putCallLock.readLock().unlock();
+        }
+
+        this.broadcast(in, subsector);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> submitMarketData(MarketDataInput in) {
+        final WriteBehindQueue<MarketDataInput> queue = this.writeBehindQueue;
+        if (queue == null) {
+            try {
+                return CompletableFuture.completedFuture(this.setMarketData(in));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return queue.submit(in);
+    }
+
+    public synchronized void enableWriteBehind(int capacity, int batchSize, Backpressure backpressure) {
+        this.disableWriteBehind();
+        this.writeBehindQueue = new WriteBehindQueue<>(this.getClass().getSimpleName(), capacity, batchSize, backpressure,
+          this::writeMarketData);
+    }
+
+    public synchronized void disableWriteBehind() {
+        final WriteBehindQueue<MarketDataInput> queue = this.writeBehindQueue;
+        this.writeBehindQueue = null;
+        if (queue != null)
+            queue.close();
+    }
+
+    /**
+     * Flushes the write-behind queue first, since its writes broadcast the trades they insert.
+     */
+    @Override
+    public void shutdown() {
+        this.disableWriteBehind();
+        super.shutdown();
+    }
+
+    public int getWriteBehindDepth() {
+        final WriteBehindQueue<MarketDataInput> queue = this.writeBehindQueue;
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Inserts the new trades of the batch in one transaction. If it rolls back, the trades are retried one at a time so
+     * each gets its own result; only trades whose insert committed are recorded and broadcast.
+     */
+    private void writeMarketData(List<MarketDataInput> batch, List<CompletableFuture<Boolean>> results) {
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        final RecentTradeFilter filter = this.getTradeFilter();
+        final Set<String> keys = this.getExistingTradeKeys(batch, filter, template);
+
+        final List<MarketDataInput> inserts = new ArrayList<>(batch.size());
+        final List<CompletableFuture<Boolean>> insertResults = new ArrayList<>(batch.size());
+        final List<Object[]> params = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            final MarketDataInput in = batch.get(i);
+            if (in.side <= -2 || !keys.add(getTradeKey(in.timestamp, in.tradeid))) {
+                results.get(i).complete(false);
+                continue;
+            }
+            try {
+                params.add(this.getInsertParams(in, this.subsectorCache.getSubsector(in.symbol)));
+            } catch (RuntimeException e) {
+                results.get(i).completeExceptionally(e);
+                continue;
+            }
+            inserts.add(in);
+            insertResults.add(results.get(i));
+        }
+        if (inserts.isEmpty())
+            return;
+
+        final List<MarketDataInput> written = new ArrayList<>(inserts.size());
+        final List<CompletableFuture<Boolean>> writtenResults = new ArrayList<>(inserts.size());
+        this.putCallLock.readLock().lock();
+        try {
+            try {
+                this.getTransactionTemplate(template).executeWithoutResult(status -> template.batchUpdate(INSERT_SQL, params));
+                written.addAll(inserts);
+                writtenResults.addAll(insertResults);
+            } catch (DataAccessException e) {
+                this.logger.warn("Batch of {} trades rolled back, inserting them one at a time", inserts.size(), e);
+                for (int i = 0; i < inserts.size(); i++) {
+                    try {
+                        template.update(INSERT_SQL, params.get(i));
+                        written.add(inserts.get(i));
+                        writtenResults.add(insertResults.get(i));
+                    } catch (DuplicateKeyException d) {
+                        insertResults.get(i).complete(false);
+                    } catch (DataAccessException r) {
+                        insertResults.get(i).completeExceptionally(r);
+                    }
+                }
+            }
+
+            written.forEach(in -> {
+                if (filter != null)
+                    filter.add(in.timestamp, in.tradeid);
+                this.recordPutCall(in);
+            });
+        } finally {
+            this.putCallLock.readLock().unlock();
+        }
+        this.logger.debug("Pushed {} records to {}", written.size(), this.getClass().getSimpleName());
+        written.forEach(in -> this.broadcast(in, this.subsectorCache.getSubsector(in.symbol)));
+        writtenResults.forEach(result -> result.complete(true));
+    }
+
+    private TransactionTemplate getTransactionTemplate(JdbcTemplate template) {
+        // only called by the write-behind writer
+        final DataSource dataSource = template.getDataSource();
+        if (this.batchTransactions == null || this.batchDataSource != dataSource) {
+            this.batchDataSource = dataSource;
+            this.batchTransactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+        return this.batchTransactions;
+    }
+
+    private Set<String> getExistingTradeKeys(List<MarketDataInput> batch, RecentTradeFilter filter, JdbcTemplate template) {
+        final List<Date> timestamps = batch.stream()
+          .filter(in -> filter == null || !filter.isDefinitelyNew(in.timestamp, in.tradeid))
+          .map(in -> in.timestamp).distinct().collect(Collectors.toList());
+        final Set<String> keys = new HashSet<>(batch.size() * 2);
+        if (timestamps.isEmpty())
+            return keys;
+        template.query("select timestamp, tradeid from trades where timestamp in ("
+            + this.getParamString(timestamps.size()) + ")",
+          rs -> {
+              keys.add(getTradeKey(rs.getTimestamp(1), rs.getInt(2)));
+          }, timestamps.toArray(new Object[0]));
+        return keys;
+    }
+
+    /**
+     * Skips the duplicate check for trades that are definitely not among those this node inserted over the last
+     * window. Only for a single writer: trades inserted by other nodes are not in the filter, so with several writers
+     * their duplicates would be inserted again.
+     */
+    public void setRecentTradeFilter(boolean enabled) {
+        // trades inserted while it was off are not in it, so it is warmed again when turned back on
+        if (enabled && !this.tradeFilterEnabled)
+            this.tradeFilterWarm = false;
+        this.tradeFilterEnabled = enabled;
+    }
+
+    /**
+     * @return the warmed filter, or null when it is off and every trade is checked against the database
+     */
+    private RecentTradeFilter getTradeFilter() {
+        if (!this.tradeFilterEnabled)
+            return null;
+        if (!this.tradeFilterWarm) {
+            synchronized (this.tradeFilter) {
+                if (!this.tradeFilterWarm) {
+                    this.warmTradeFilter();
+                    this.tradeFilterWarm = true;
+                }
+            }
+        }
+        return this.tradeFilter;
+    }
+
+    private void warmTradeFilter() {
+        final long maxTimestamp = this.getMaxTimestamp();
+        final long from = (maxTimestamp > 0 ? maxTimestamp : System.currentTimeMillis()) - this.tradeFilter.getWindowMillis();
+        this.tradeFilter.reset(from);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        template.query("select timestamp, tradeid from trades where timestamp >= ?", rs -> {
+            this.tradeFilter.add(rs.getTimestamp(1), rs.getInt(2));
+        }, new Date(from));
+        this.logger.debug("Warmed trade filter with {} trades since {}", this.tradeFilter.size(), new Date(from));
+    }
+
+    private static String getTradeKey(Date timestamp, int tradeid) {
+        return timestamp.getTime() + ":" + tradeid;
+    }
+
+    private Object[] getInsertParams(MarketDataInput in, String subsector) {
+        return new Object[] {
+          in.tradeid, in.size, in.symbol, in.expiry, in.strike, in.type, in.getRoundedPrice(), in.side,
           in.exch, in.volume, in.condition, in.ivol, in.ivolchg, in.ivolchgpct, in.delta, in.deltadollar,
           in.spot, in.spotchg, in.vega, in.vegadollar, in.theta, in.bidprice, in.bidsize, in.askprice, in.asksize, in.notional,
           in.oi, in.sentiment, in.pc, in.thirdfriday ? 1 : 0, in.otm ? 1 : 0, in.events, in.section, subsector, in.timestamp,
-          in.timestamp, formatTimeInStupidOldFormat(in.timestamp), in.isUnusual(), in.isHighlyUnusual());
+          in.timestamp, formatTimeInStupidOldFormat(in.timestamp), in.isUnusual(), in.isHighlyUnusual()
+        };
+    }
 
-        this.broadcast(() -> {
+    private void broadcast(MarketDataInput in, String subsector) {
+        this.broadcast(in.symbol, () -> {
             try {
                 return getMarketData(in, subsector);
             } catch (ParseException e) {
@@ -162,24 +507,24 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
             }
             return in;
         });
-        return true;
     }
 
     private MarketData getMarketData(MarketDataInput in, String subsector) throws ParseException {
+        final SymbolDictionary symbols = SymbolDictionary.getInstance();
         final MarketData marketData = new MarketData();
-        marketData.setSentiment(in.sentiment);
+        marketData.setSentiment(symbols.intern(in.sentiment));
         marketData.setSize(in.size);
-        marketData.setSymbol(in.symbol);
+        marketData.setSymbol(symbols.intern(in.symbol));
         marketData.setExpiry(new SimpleDateFormat("yyyy-MM-dd").parse(in.expiry));
         marketData.setStrike(in.strike);
-        marketData.setType(in.type);
+        marketData.setType(symbols.intern(in.type));
         marketData.setPrice(in.price);
-        marketData.setOptionType(in.pc);
+        marketData.setOptionType(symbols.intern(in.pc));
         marketData.setSide(in.side);
-        marketData.setExch(in.exch);
+        marketData.setExch(symbols.intern(in.exch));
         marketData.setTimestamp(in.timestamp);
         marketData.setVolume(in.volume);
-        marketData.setCondition(in.condition);
+        marketData.setCondition(symbols.intern(in.condition));
         marketData.setThirdFriday(in.thirdfriday);
         marketData.setIvol(in.ivol);
         marketData.setIvolChg(in.ivolchg);
@@ -199,8 +544,8 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
         marketData.setNotional(in.notional);
         marketData.setOi(in.oi);
         marketData.setOutOfMoney(in.otm);
-        marketData.setSubsector(subsector);
-        marketData.setSection(in.section);
+        marketData.setSubsector(symbols.intern(subsector));
+        marketData.setSection(symbols.intern(in.section));
         marketData.setSector("");
         marketData.setUnusual(in.isUnusual());
         marketData.setHighlyUnusual(in.isHighlyUnusual());
@@ -216,7 +561,7 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
 
     @Override
     public long getMaxTimestamp() {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         try {
             final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
             calendar.add(Calendar.DAY_OF_YEAR, -7);
@@ -229,55 +574,71 @@ public class TradesTable extends AbstractDAO<MarketData> implements TradesDAO {
         return 0;
     }
 
-    private static final class MarketDataRowMapper implements RowMapper<MarketData> {
+    /**
+     * Resolves its columns on the first row it maps, so use a new instance per query.
+     */
+    static final class MarketDataRowMapper implements RowMapper<MarketData> {
+
+        // read in this order by mapRow; SQL NULL maps to 0/false through the primitive accessors
+        static final String[] COLUMNS = {
+          "id", "sentiment", "size", "symbol", "expiry", "strike", "type", "price", "pc", "side", "exch", "timestamp",
+          "volume", "cond", "thirdfriday", "ivol", "ivolchg", "ivolchgpct", "delta", "deltadollar", "spot", "spotchg",
+          "vega", "vegadollar", "theta", "events", "bidprice", "bidsize", "askprice", "asksize", "notional", "oi", "otm",
+          "subsector", "section", "unusual", "highlyunusual"
+        };
+
+        private static final SymbolDictionary SYMBOLS = SymbolDictionary.getInstance();
+
+        private final ColumnIndexes columns = new ColumnIndexes(COLUMNS);
 
         @Override
         public MarketData mapRow(ResultSet rs, int rowNum) throws SQLException {
+            final int[] c = this.columns.get(rs);
+            int i = 0;
             final MarketData marketData = new MarketData();
-            marketData.setId(rs.getInt("id"));
-            marketData.setSentiment(Optional.ofNullable(rs.getString("sentiment")).orElse(""));
-            marketData.setSize(rs.getInt("size"));
-            marketData.setSymbol(rs.getString("symbol"));
-            marketData.setExpiry(rs.getDate("expiry"));
-            marketData.setStrike(rs.getFloat("strike"));
-            marketData.setType(Optional.ofNullable(rs.getString("type")).orElse(""));
-            marketData.setPrice(rs.getFloat("price"));
-            marketData.setOptionType(rs.getString("pc"));
-            marketData.setSide(rs.getInt("side"));
-            marketData.setExch(rs.getString("exch"));
-            marketData.setTimestamp(rs.getTimestamp("timestamp"));
-            marketData.setVolume(rs.getInt("volume"));
-            marketData.setCondition(Optional.ofNullable(rs.getString("cond")).orElse(""));
-            marketData.setThirdFriday(Optional.ofNullable(rs.getObject("thirdfriday"))
-              .map(Boolean.class::cast).orElse(false));
-            marketData.setIvol(rs.getDouble("ivol"));
-            marketData.setIvolChg(rs.getDouble("ivolchg"));
-            marketData.setIvolChgPct(Optional.ofNullable(rs.getObject("ivolchgpct")).map(Double.class::cast)
-              .orElse(0.0d));
-            marketData.setDelta(rs.getDouble("delta"));
-            marketData.setDeltaDollar(rs.getDouble("deltadollar"));
-            marketData.setSpot(rs.getDouble("spot"));
-            marketData.setSpotChg(rs.getDouble("spotchg"));
-            marketData.setVega(rs.getDouble("vega"));
-            marketData.setVegaDollar(rs.getDouble("vegadollar"));
-            marketData.setTheta(rs.getDouble("theta"));
-            marketData.setEvents(rs.getString("events"));
-            marketData.setBidPrice(rs.getDouble("bidprice"));
-            marketData.setBidSize(rs.getDouble("bidsize"));
-            marketData.setAskPrice(rs.getDouble("askprice"));
-            marketData.setAskSize(rs.getDouble("asksize"));
-            marketData.setNotional(rs.getDouble("notional"));
-            marketData.setOi(rs.getDouble("oi"));
-            marketData.setOutOfMoney(Optional.ofNullable(rs.getObject("otm")).map(Boolean.class::cast)
-              .orElse(false));
-            marketData.setSubsector(Optional.ofNullable(rs.getString("subsector")).orElse(""));
-            marketData.setSection(Optional.ofNullable(rs.getString("section")).orElse(""));
+            marketData.setId(rs.getInt(c[i++]));
+            marketData.setSentiment(orEmpty(SYMBOLS.intern(rs.getString(c[i++]))));
+            marketData.setSize(rs.getInt(c[i++]));
+            marketData.setSymbol(SYMBOLS.intern(rs.getString(c[i++])));
+            marketData.setExpiry(rs.getDate(c[i++]));
+            marketData.setStrike(rs.getFloat(c[i++]));
+            marketData.setType(orEmpty(SYMBOLS.intern(rs.getString(c[i++]))));
+            marketData.setPrice(rs.getFloat(c[i++]));
+            marketData.setOptionType(SYMBOLS.intern(rs.getString(c[i++])));
+            marketData.setSide(rs.getInt(c[i++]));
+            marketData.setExch(SYMBOLS.intern(rs.getString(c[i++])));
+            marketData.setTimestamp(rs.getTimestamp(c[i++]));
+            marketData.setVolume(rs.getInt(c[i++]));
+            marketData.setCondition(orEmpty(SYMBOLS.intern(rs.getString(c[i++]))));
+            marketData.setThirdFriday(rs.getBoolean(c[i++]));
+            marketData.setIvol(rs.getDouble(c[i++]));
+            marketData.setIvolChg(rs.getDouble(c[i++]));
+            marketData.setIvolChgPct(rs.getDouble(c[i++]));
+            marketData.setDelta(rs.getDouble(c[i++]));
+            marketData.setDeltaDollar(rs.getDouble(c[i++]));
+            marketData.setSpot(rs.getDouble(c[i++]));
+            marketData.setSpotChg(rs.getDouble(c[i++]));
+            marketData.setVega(rs.getDouble(c[i++]));
+            marketData.setVegaDollar(rs.getDouble(c[i++]));
+            marketData.setTheta(rs.getDouble(c[i++]));
+            marketData.setEvents(rs.getString(c[i++]));
+            marketData.setBidPrice(rs.getDouble(c[i++]));
+            marketData.setBidSize(rs.getDouble(c[i++]));
+            marketData.setAskPrice(rs.getDouble(c[i++]));
+            marketData.setAskSize(rs.getDouble(c[i++]));
+            marketData.setNotional(rs.getDouble(c[i++]));
+            marketData.setOi(rs.getDouble(c[i++]));
+            marketData.setOutOfMoney(rs.getBoolean(c[i++]));
+            marketData.setSubsector(orEmpty(SYMBOLS.intern(rs.getString(c[i++]))));
+            marketData.setSection(orEmpty(SYMBOLS.intern(rs.getString(c[i++]))));
             marketData.setSector("");
-            marketData.setUnusual(Optional.ofNullable(rs.getObject("unusual")).map(Boolean.class::cast)
-              .orElse(false));
-            marketData.setHighlyUnusual(Optional.ofNullable(rs.getObject("highlyunusual")).map(Boolean.class::cast)
-              .orElse(false));
+            marketData.setUnusual(rs.getBoolean(c[i++]));
+            marketData.setHighlyUnusual(rs.getBoolean(c[i++]));
             return marketData;
         }
+
+        private static String orEmpty(String s) {
+            return s == null ? "" : s;
+        }
     }
 }
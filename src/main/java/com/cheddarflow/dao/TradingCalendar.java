@@ -0,0 +1,59 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.HolidayWindow;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trading-day arithmetic on local calendar days. A day is not a trading day when it falls on a weekend or when a
+ * holiday window covers its midday, so early-close days still count as trading days.
+ */
+final class TradingCalendar {
+
+    private static final int MAX_LOOKBACK_DAYS = 14;
+
+    private final HolidayWindowDAO holidayWindowDAO;
+    private final Map<Long, Long> previousTradingDays = new ConcurrentHashMap<>();
+
+    TradingCalendar(HolidayWindowDAO holidayWindowDAO) {
+        this.holidayWindowDAO = holidayWindowDAO;
+    }
+
+    static Date getDayStart(Date date) {
+        final Calendar c = Calendar.getInstance();
+        c.setTime(date);
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        return c.getTime();
+    }
+
+    Date getPreviousTradingDay(Date date) {
+        final Date day = getDayStart(date);
+        return new Date(this.previousTradingDays.computeIfAbsent(day.getTime(), this::findPreviousTradingDay));
+    }
+
+    private long findPreviousTradingDay(long dayStart) {
+        final List<HolidayWindow> holidays = this.holidayWindowDAO.getHolidayWindows(
+          new Date(dayStart - TimeUnit.DAYS.toMillis(MAX_LOOKBACK_DAYS)), new Date(dayStart));
+
+        final Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(dayStart);
+        for (int i = 0; i < MAX_LOOKBACK_DAYS; i++) {
+            c.add(Calendar.DAY_OF_YEAR, -1);
+            final int dayOfWeek = c.get(Calendar.DAY_OF_WEEK);
+            if (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY)
+                continue;
+            final Date midday = new Date(c.getTimeInMillis() + TimeUnit.HOURS.toMillis(12));
+            if (holidays.stream().noneMatch(h -> !h.getStartTime().after(midday) && !h.getEndTime().before(midday)))
+                return c.getTimeInMillis();
+        }
+        return c.getTimeInMillis();
+    }
+}
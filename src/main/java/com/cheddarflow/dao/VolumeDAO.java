@@ -11,4 +11,5 @@ public interface VolumeDAO {
     List<VolumeData> getVolumeData(Date from, Date to, boolean rollback);
     void setVolumeData(VolumeData in);
     void persist(List<VolumeData> in);
+    VolumeSnapshot getVolumeSnapshot(Date date);
 }
@@ -0,0 +1,88 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.VolumeData;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Numeric columns of the {@code volume} table, one array per constant in a {@link VolumeSnapshot}.
+ */
+public enum VolumeMetric {
+
+    OPTION_VOLUME(VolumeData::getOptionVolume),
+    PUTS(VolumeData::getPuts),
+    CALLS(VolumeData::getCalls),
+    PCT_ADV(VolumeData::getPctAdv),
+    TW_PCT_ADV(VolumeData::getTwPctAdv),
+    ADV(VolumeData::getAdv),
+    OPTION_OPEN_INT(VolumeData::getOptionOpenInt),
+    VOLUME_OI_PCT(VolumeData::getVolumeOiPct),
+    SPOT(VolumeData::getSpot),
+    SPOT_CHG(VolumeData::getSpotChg),
+    BULLISH_PCT(VolumeData::getBullishPct),
+    NEUTRAL_PCT(VolumeData::getNeutralPct),
+    BEARISH_PCT(VolumeData::getBearishPct),
+    PUT_BID_PCT(VolumeData::getPutBidPct),
+    PUT_MID_PCT(VolumeData::getPutMidPct),
+    PUT_ASK_PCT(VolumeData::getPutAskPct),
+    CALL_BID_PCT(VolumeData::getCallBidPct),
+    CALL_MID_PCT(VolumeData::getCallMidPct),
+    CALL_ASK_PCT(VolumeData::getCallAskPct),
+    ATM_IVOL(VolumeData::getAtmIvol),
+    ATM_IVOL_CHG(VolumeData::getAtmIvolChg),
+    OI_PUTS(VolumeData::getOiPuts),
+    OI_CALLS(VolumeData::getOiCalls),
+    AVG_TOTAL_PUTS(VolumeData::getAvgTotalPuts),
+    AVG_TOTAL_CALLS(VolumeData::getAvgTotalCalls),
+    TIME_WEIGHT(VolumeData::getTimeWeight),
+    VOLUME(VolumeData::getVolume),
+    AVG_VOLUME(VolumeData::getAvgVolume),
+    CLOSE(VolumeData::getClose),
+    CHG(VolumeData::getChg),
+    ATM1(VolumeData::getAtm1),
+    ATM2(VolumeData::getAtm2),
+    OI_PUTS_CHG(VolumeData::getOiPutsChg),
+    OI_CALLS_CHG(VolumeData::getOiCallsChg),
+    PUT_TRADES(VolumeData::getPutTrades),
+    CALL_TRADES(VolumeData::getCallTrades),
+    PUT_PREM(VolumeData::getPutPrem),
+    CALL_PREM(VolumeData::getCallPrem),
+    BULLISH_C_PREM(VolumeData::getBullishCPrem),
+    BEARISH_C_PREM(VolumeData::getBearishCPrem),
+    BEARISH_P_PREM(VolumeData::getBearishPPrem),
+    BULLISH_P_PREM(VolumeData::getBullishPPrem),
+    NET_DELTA(VolumeData::getNetDelta),
+    NET_VEGA(VolumeData::getNetVega),
+    BULLISH_ON_ASK(VolumeData::getBullishOnAsk),
+    BEARISH_ON_ASK(VolumeData::getBearishOnAsk),
+    VOLATILITY20DAY(VolumeData::getVolatility20Day),
+    VOLATILITY60DAY(VolumeData::getVolatility60Day),
+    VOLATILITY120DAY(VolumeData::getVolatility120Day),
+    SPLIT_ADJ_CLOSE(VolumeData::getSplitAdjClose),
+    SPLIT_ADJ_MULT(VolumeData::getSplitAdjMult),
+    AMEX(VolumeData::getAmex),
+    ARCA(VolumeData::getArca),
+    BXO(VolumeData::getBxo),
+    BZX(VolumeData::getBzx),
+    BOX(VolumeData::getBox),
+    CBOE(VolumeData::getCboe),
+    C2(VolumeData::getC2),
+    EDGX(VolumeData::getEdgx),
+    GEM(VolumeData::getGem),
+    ISE(VolumeData::getIse),
+    MERC(VolumeData::getMerc),
+    MIAX(VolumeData::getMiax),
+    NOM(VolumeData::getNom),
+    PEARL(VolumeData::getPearl),
+    PHLX(VolumeData::getPhlx);
+
+    private final ToDoubleFunction<VolumeData> accessor;
+
+    VolumeMetric(ToDoubleFunction<VolumeData> accessor) {
+        this.accessor = accessor;
+    }
+
+    double get(VolumeData data) {
+        return this.accessor.applyAsDouble(data);
+    }
+}
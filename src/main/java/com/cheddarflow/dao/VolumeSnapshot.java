@@ -0,0 +1,220 @@
+package com.cheddarflow.dao;
+
+import com.cheddarflow.model.VolumeData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+
+/**
+ * Immutable column-oriented copy of one day of the {@code volume} table. Each {@link VolumeMetric} is held in its own
+ * {@code double[]} indexed by row, and rows are addressed through a symbol dictionary. Updates produce a new snapshot.
+ */
+public class VolumeSnapshot {
+
+    private final Date date;
+    private final long dayStart;
+    private final String[] symbols;
+    private final Map<String, Integer> rows;
+    private final double[][] values;
+
+    private VolumeSnapshot(Date date, String[] symbols, Map<String, Integer> rows, double[][] values) {
+        this.date = date;
+        this.dayStart = TradingCalendar.getDayStart(date).getTime();
+        this.symbols = symbols;
+        this.rows = rows;
+        this.values = values;
+    }
+
+    static VolumeSnapshot of(Date date, List<VolumeData> data) {
+        return new VolumeSnapshot(date, new String[0], new HashMap<>(), new double[VolumeMetric.values().length][0])
+          .withUpdates(data);
+    }
+
+    public Date getDate() {
+        return this.date;
+    }
+
+    public int size() {
+        return this.symbols.length;
+    }
+
+    public String getSymbol(int row) {
+        return this.symbols[row];
+    }
+
+    public List<String> getSymbols(int[] rows) {
+        final List<String> result = new ArrayList<>(rows.length);
+        for (int row : rows)
+            result.add(this.symbols[row]);
+        return result;
+    }
+
+    /**
+     * @return the row of the symbol, or -1 if it has no volume data on this date
+     */
+    public int indexOf(String symbol) {
+        final Integer row = this.rows.get(symbol.toUpperCase());
+        return row != null ? row : -1;
+    }
+
+    public double get(int row, VolumeMetric metric) {
+        return this.values[metric.ordinal()][row];
+    }
+
+    /**
+     * @return the metric value for the symbol, or {@link Double#NaN} if the symbol is not in the snapshot
+     */
+    public double get(String symbol, VolumeMetric metric) {
+        final int row = this.indexOf(symbol);
+        return row >= 0 ? this.values[metric.ordinal()][row] : Double.NaN;
+    }
+
+    public int[] filter(VolumeMetric metric, DoublePredicate predicate) {
+        final double[] column = this.values[metric.ordinal()];
+        final int[] matches = new int[column.length];
+        int count = 0;
+        for (int i = 0; i < column.length; i++) {
+            if (predicate.test(column[i]))
+                matches[count++] = i;
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    public int[] sort(VolumeMetric metric, boolean descending) {
+        final double[] column = this.values[metric.ordinal()];
+        final int[] order = new int[column.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        sort(order, 0, order.length - 1, column, descending ? -1 : 1);
+        return order;
+    }
+
+    /**
+     * Selects the {@code n} highest (or lowest) rows with a bounded heap rather than sorting the whole column.
+     */
+    public int[] topN(VolumeMetric metric, int n, boolean descending) {
+        final double[] column = this.values[metric.ordinal()];
+        final int sign = descending ? -1 : 1;
+        final int size = Math.min(n, column.length);
+        if (size <= 0)
+            return new int[0];
+
+        // heap root is the worst row kept so far
+        final int[] heap = new int[size];
+        int count = 0;
+        for (int i = 0; i < column.length; i++) {
+            if (count < size) {
+                heap[count] = i;
+                siftUp(heap, count++, column, sign);
+            } else if (compare(column, i, heap[0], sign) < 0) {
+                heap[0] = i;
+                siftDown(heap, 0, size, column, sign);
+            }
+        }
+        sort(heap, 0, size - 1, column, sign);
+        return heap;
+    }
+
+    /**
+     * @return a copy of this snapshot with rows for this date replaced or appended; rows for other dates are ignored
+     */
+    VolumeSnapshot withUpdates(List<VolumeData> data) {
+        final Map<String, Integer> newRows = new HashMap<>(this.rows);
+        final List<String> added = new ArrayList<>();
+        for (VolumeData v : data) {
+            if (!this.isSameDate(v.getDate()))
+                continue;
+            final String symbol = v.getSymbol().toUpperCase();
+            if (!newRows.containsKey(symbol)) {
+                newRows.put(symbol, this.symbols.length + added.size());
+                added.add(symbol);
+            }
+        }
+
+        final int size = this.symbols.length + added.size();
+        final String[] newSymbols = Arrays.copyOf(this.symbols, size);
+        for (int i = 0; i < added.size(); i++)
+            newSymbols[this.symbols.length + i] = added.get(i);
+
+        final VolumeMetric[] metrics = VolumeMetric.values();
+        final double[][] newValues = new double[metrics.length][];
+        for (int m = 0; m < metrics.length; m++)
+            newValues[m] = Arrays.copyOf(this.values[m], size);
+
+        for (VolumeData v : data) {
+            if (!this.isSameDate(v.getDate()))
+                continue;
+            final int row = newRows.get(v.getSymbol().toUpperCase());
+            for (VolumeMetric metric : metrics)
+                newValues[metric.ordinal()][row] = metric.get(v);
+        }
+        return new VolumeSnapshot(this.date, newSymbols, newRows, newValues);
+    }
+
+    private boolean isSameDate(Date d) {
+        return d != null && TradingCalendar.getDayStart(d).getTime() == this.dayStart;
+    }
+
+    private static int compare(double[] column, int a, int b, int sign) {
+        return sign * Double.compare(column[a], column[b]);
+    }
+
+    private static void siftUp(int[] heap, int i, double[] column, int sign) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (compare(column, heap[i], heap[parent], sign) <= 0)
+                return;
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int i, int size, double[] column, int sign) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= size)
+                return;
+            int worst = left;
+            if (left + 1 < size && compare(column, heap[left + 1], heap[left], sign) > 0)
+                worst = left + 1;
+            if (compare(column, heap[worst], heap[i], sign) <= 0)
+                return;
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void sort(int[] order, int lo, int hi, double[] column, int sign) {
+        while (lo < hi) {
+            final int pivot = order[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (compare(column, order[i], pivot, sign) < 0)
+                    i++;
+                while (compare(column, order[j], pivot, sign) > 0)
+                    j--;
+                if (i <= j)
+                    swap(order, i++, j--);
+            }
+            if (j - lo < hi - i) {
+                sort(order, lo, j, column, sign);
+                lo = i;
+            } else {
+                sort(order, i, hi, column, sign);
+                hi = j;
+            }
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        final int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
@@ -2,7 +2,6 @@ package com.cheddarflow.dao;
 
 import com.cheddarflow.dao.event.VolumeUpdateEvent;
 import com.cheddarflow.eventbus.GlobalEventBus;
-import com.cheddarflow.jdbc.JdbcTemplates;
 import com.cheddarflow.jdbc.NoDataInRangeException;
 import com.cheddarflow.model.VolumeData;
 import com.cheddarflow.util.DateUtils;
@@ -12,10 +11,15 @@ import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -32,11 +36,29 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
 
-    private final RowMapper<VolumeData> volumeDataRowMapper = new VolumeDataRowMapper();
+    private static final int PREFETCH_CHUNK_SIZE = 1000;
+    private static final int MAX_SNAPSHOTS = 5;
+
+
+    private final LatestDateTracker latestDates;
+
+    // most recently used day snapshots, keyed by formatted date; guarded by the map's lock, as is snapshotLoads
+    private final Map<String, CachedSnapshot> snapshots = Collections.synchronizedMap(
+      new LinkedHashMap<>(MAX_SNAPSHOTS, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedSnapshot> eldest) {
+              return this.size() > MAX_SNAPSHOTS;
+          }
+      });
+    // rows written to a date while a snapshot of it is being loaded, re-applied to the snapshot when the load ends
+    private final Map<String, List<List<VolumeData>>> snapshotLoads = new HashMap<>();
+    private volatile long snapshotRefreshMillis = TimeUnit.MINUTES.toMillis(1);
 
     @Autowired
-    public VolumeTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor) {
-        super(taskExecutor);
+    public VolumeTable(@Qualifier("normalTaskExecutor") ThreadPoolTaskExecutor taskExecutor,
+      LatestDateTracker latestDates) {
+        super(taskExecutor, VolumeData.class, VolumeData::getSymbol, VolumeUpdateEvent::new);
+        this.latestDates = latestDates;
     }
 
     @Override
@@ -47,7 +69,7 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
     }
 
     private VolumeData getVolumeData(String dateString, String symbol) {
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         List<Object> params = new ArrayList<>();
         params.add(dateString);
 
@@ -64,7 +86,7 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
             }
         }
 
-        final List<VolumeData> data = template.query(query, params.toArray(new Object[0]), this.volumeDataRowMapper);
+        final List<VolumeData> data = template.query(query, params.toArray(new Object[0]), new VolumeDataRowMapper());
 
         return !data.isEmpty() ? data.get(0) : null;
     }
@@ -78,13 +100,12 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
         String fromString = f.format(from);
         String toString = f.format(to);
 
-        final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(true);
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
         final List<VolumeData> data = doGetVolumeData(fromString, toString, template);
         if (data.isEmpty() && rollback) {
             final Date rollbackDate = new Date(from.getTime() - TimeUnit.DAYS.toMillis(7));
             try {
-                final Date minDate = template.queryForObject("select max(date) from volume where date >= ?",
-                  new Object[] { rollbackDate }, Date.class);
+                final Date minDate = this.getLatestDate(this.latestDates, template, "volume", "date", rollbackDate);
                 if (minDate == null)
                     throw new NoDataInRangeException("No volume data found");
                 final Date maxDate = new Date(minDate.getTime() + TimeUnit.DAYS.toMillis(1));
@@ -98,7 +119,68 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
 
     private List<VolumeData> doGetVolumeData(String fromString, String toString, JdbcTemplate template) {
         return template.query("select * from volume where date >= ? and date <= ?",
-          new Object[] { fromString, toString }, this.volumeDataRowMapper);
+          new Object[] { fromString, toString }, new VolumeDataRowMapper());
+    }
+
+    @Override
+    public VolumeSnapshot getVolumeSnapshot(Date date) {
+        final String dateString = DateUtils.getDateFormat().format(date);
+        final long now = System.currentTimeMillis();
+        final List<VolumeData> missed = new ArrayList<>();
+        synchronized (this.snapshots) {
+            final CachedSnapshot cached = this.snapshots.get(dateString);
+            if (cached != null && now - cached.loadedAt < this.snapshotRefreshMillis)
+                return cached.getSnapshot();
+            this.snapshotLoads.computeIfAbsent(dateString, k -> new ArrayList<>()).add(missed);
+        }
+
+        final List<VolumeData> data;
+        try {
+            final JdbcTemplate template = JdbcTemplateSource.getTemplate(true);
+            data = template.query("select * from volume where date = ?", new Object[] { dateString },
+              new VolumeDataRowMapper());
+        } catch (RuntimeException e) {
+            this.endSnapshotLoad(dateString, missed);
+            throw e;
+        }
+
+        synchronized (this.snapshots) {
+            this.endSnapshotLoad(dateString, missed);
+            // rows written during the query may or may not be in its result; applying them again is harmless
+            final VolumeSnapshot loaded = VolumeSnapshot.of(date, data).withUpdates(missed);
+            this.snapshots.put(dateString, new CachedSnapshot(loaded, now));
+            return loaded;
+        }
+    }
+
+    private void endSnapshotLoad(String dateString, List<VolumeData> missed) {
+        synchronized (this.snapshots) {
+            final List<List<VolumeData>> loads = this.snapshotLoads.get(dateString);
+            loads.removeIf(l -> l == missed);
+            if (loads.isEmpty())
+                this.snapshotLoads.remove(dateString);
+        }
+    }
+
+    /**
+     * Sets how long a day snapshot is served before it is reloaded, to pick up rows written by other nodes. Local
+     * writes are applied to cached snapshots as they happen.
+     */
+    public void setSnapshotRefreshInterval(long interval, TimeUnit unit) {
+        this.snapshotRefreshMillis = unit.toMillis(interval);
+    }
+
+    private void updateSnapshots(List<VolumeData> written, SimpleDateFormat format) {
+        final Map<String, List<VolumeData>> byDate = written.stream()
+          .collect(Collectors.groupingBy(v -> format.format(v.getDate())));
+        synchronized (this.snapshots) {
+            byDate.forEach((dateString, rows) -> {
+                final CachedSnapshot cached = this.snapshots.get(dateString);
+                if (cached != null)
+                    cached.update(rows);
+                this.snapshotLoads.getOrDefault(dateString, Collections.emptyList()).forEach(l -> l.addAll(rows));
+            });
+        }
     }
 
     @Override
@@ -106,7 +188,7 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
         SimpleDateFormat format = DateUtils.getDateFormat();
 
         try {
-            final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
+            final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
             VolumeData existing = this.getVolumeData(in.getDate(), in.getSymbol());
 
             boolean differs = true;
@@ -274,8 +356,10 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
               in.getBzx(), in.getBox(), in.getCboe(), in.getC2(), in.getEdgx(), in.getGem(), in.getIse(), in.getMerc(),
               in.getMiax(), in.getNom(), in.getPearl(), in.getPhlx());
 
+            this.latestDates.advance("volume", in.getDate());
+            this.updateSnapshots(List.of(in), format);
             if (differs) {
-                this.broadcast(() -> getVolumeData(format.format(in.getDate()), in.getSymbol()));
+                this.broadcast(in.getSymbol(), () -> getVolumeData(format.format(in.getDate()), in.getSymbol()));
             }
         } catch (Exception e) {
             this.logger.error("Could not update VolumeTable", e);
@@ -287,12 +371,16 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
         SimpleDateFormat format = DateUtils.getDateFormat();
 
         try {
-            final JdbcTemplate template = JdbcTemplates.getInstance().getTemplate(false);
+            final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
             final List<Object[]> inserts = new ArrayList<>(list.size());
             final List<Object[]> updates = new ArrayList<>(list.size());
+            final List<VolumeData> dataToBroadcast = new ArrayList<>(list.size());
+            final Map<String, VolumeData> existingData = this.getExistingVolumeData(list, format);
             list.forEach(in -> {
-                final VolumeData existing = this.getVolumeData(in.getDate(), in.getSymbol());
-                if (existing != null && !existing.similarTo(in)) {
+                final VolumeData existing = existingData.get(getVolumeKey(format.format(in.getDate()), in.getSymbol()));
+                if (existing != null && existing.similarTo(in))
+                    return;
+                if (existing != null) {
                     updates.add(new Object[] {
                       in.getSymbol(), format.format(in.getDate()), in.getOptionVolume(), in.getPuts(),
                       in.getCalls(), in.getPctAdv(), in.getTwPctAdv(), in.getAdv(), in.getOptionOpenInt(), in.getVolumeOiPct(),
@@ -307,6 +395,7 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
                       in.getBzx(), in.getBox(), in.getCboe(), in.getC2(), in.getEdgx(), in.getGem(), in.getIse(), in.getMerc(),
                       in.getMiax(), in.getNom(), in.getPearl(), in.getPhlx(), existing.getId()
                     });
+                    in.setId(existing.getId());
                 } else {
                     inserts.add(new Object[] {
                       in.getSymbol(), format.format(in.getDate()), in.getOptionVolume(), in.getPuts(),
@@ -323,9 +412,9 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
                       in.getMiax(), in.getNom(), in.getPearl(), in.getPhlx()
                     });
                 }
+                dataToBroadcast.add(in);
             });
 
-            final List<VolumeData> dataToBroadcast = new ArrayList<>(list.size());
             if (!updates.isEmpty()) {
                 template.batchUpdate("UPDATE volume set " +
                   "symbol = ?, " +
@@ -397,10 +486,6 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
                   "nom = ?, " +
                   "pearl = ?, " +
                   "phlx = ? where id = ?", updates);
-                final List<String> ids = updates.stream().map(o -> o[o.length - 1]).map(Object::toString).distinct()
-                  .collect(Collectors.toList());
-                dataToBroadcast.addAll(template.query("select * from volume where id in (" + getParamString(ids) + ")",
-                  this.volumeDataRowMapper, ids.toArray(new String[0])));
             }
 
             if (!inserts.isEmpty()) {
@@ -478,107 +563,171 @@ public class VolumeTable extends AbstractDAO<VolumeData> implements VolumeDAO {
                   " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?," +
                   " ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?," +
                   " ?, ?, ?, ?, ?, ?, ?, ?, ?)", inserts);
-                inserts.forEach(insert -> {
-                    final String symbol = insert[0].toString();
-                    final String dt = insert[1].toString();
-                    final VolumeData data = getVolumeData(dt, symbol);
-                    if (data != null)
-                        dataToBroadcast.add(data);
-                });
             }
 
+            dataToBroadcast.forEach(v -> this.latestDates.advance("volume", v.getDate()));
+            this.updateSnapshots(dataToBroadcast, format);
             if (!dataToBroadcast.isEmpty()) {
-                this.broadcast(() -> new VolumeUpdateEvent(dataToBroadcast));
+                this.broadcastBatch(dataToBroadcast);
             }
         } catch (Exception e) {
             this.logger.error("Could not update VolumeTable", e);
         }
     }
 
-    private static final class VolumeDataRowMapper implements RowMapper<VolumeData> {
+    private Map<String, VolumeData> getExistingVolumeData(List<VolumeData> list, SimpleDateFormat format) {
+        final Map<String, Set<String>> symbolsByDate = new HashMap<>();
+        list.forEach(in -> symbolsByDate.computeIfAbsent(format.format(in.getDate()), k -> new LinkedHashSet<>())
+          .add(in.getSymbol().toUpperCase()));
 
-        @Override
-        public VolumeData mapRow(ResultSet rs, int rowNum) throws SQLException {
-            final VolumeData v = new VolumeData();
-            v.setId(rs.getInt("id"));
-            v.setSymbol(rs.getString("symbol"));
-            v.setDate(rs.getDate("date"));
-            v.setComments(rs.getString("comments"));
-            v.setOptionVolume(this.getInteger(rs.getObject("option_volume")));
-            v.setPuts(this.getInteger(rs.getObject("puts")));
-            v.setCalls(this.getInteger(rs.getObject("calls")));
-            v.setPctAdv(this.getDouble(rs.getObject("pct_adv")));
-            v.setTwPctAdv(this.getDouble(rs.getObject("tw_pct_adv")));
-            v.setAdv(this.getInteger(rs.getObject("adv")));
-            v.setOptionOpenInt(this.getInteger(rs.getObject("option_open_int")));
-            v.setVolumeOiPct(this.getDouble(rs.getObject("volume_oi_pct")));
-            v.setSpot(this.getDouble(rs.getObject("spot")));
-            v.setSpotChg(this.getDouble(rs.getObject("spot_chg")));
-            v.setBullishPct(this.getDouble(rs.getObject("bullish_pct")));
-            v.setNeutralPct(this.getDouble(rs.getObject("neutral_pct")));
-            v.setBearishPct(this.getDouble(rs.getObject("bearish_pct")));
-            v.setPutBidPct(this.getDouble(rs.getObject("put_bid_pct")));
-            v.setPutMidPct(this.getDouble(rs.getObject("put_mid_pct")));
-            v.setPutAskPct(this.getDouble(rs.getObject("put_ask_pct")));
-            v.setCallBidPct(this.getDouble(rs.getObject("call_bid_pct")));
-            v.setCallMidPct(this.getDouble(rs.getObject("call_mid_pct")));
-            v.setCallAskPct(this.getDouble(rs.getObject("call_ask_pct")));
-            v.setAtmIvol(this.getDouble(rs.getObject("atm_ivol")));
-            v.setAtmIvolChg(this.getDouble(rs.getObject("atm_ivol_chg")));
-            v.setOiPuts(this.getInteger(rs.getObject("oi_puts")));
-            v.setOiCalls(this.getInteger(rs.getObject("oi_calls")));
-            v.setAvgTotalPuts(this.getInteger(rs.getObject("avg_total_puts")));
-            v.setAvgTotalCalls(this.getInteger(rs.getObject("avg_total_calls")));
-            v.setTimeWeight(this.getDouble(rs.getObject("time_weight")));
-            v.setVolume(this.getDouble(rs.getObject("volume")));
-            v.setAvgVolume(this.getDouble(rs.getObject("avg_volume")));
-            v.setClose(this.getDouble(rs.getObject("close")));
-            v.setChg(this.getDouble(rs.getObject("chg")));
-            v.setAtm1(this.getDouble(rs.getObject("atm1")));
-            v.setAtm2(this.getDouble(rs.getObject("atm2")));
-            v.setOiPutsChg(this.getInteger(rs.getObject("oi_puts_chg")));
-            v.setOiCallsChg(this.getInteger(rs.getObject("oi_calls_chg")));
-            v.setPutTrades(this.getInteger(rs.getObject("put_trades")));
-            v.setCallTrades(this.getInteger(rs.getObject("call_trades")));
-            v.setPutPrem(this.getDouble(rs.getObject("put_prem")));
-            v.setCallPrem(this.getDouble(rs.getObject("call_prem")));
-            v.setBullishCPrem(this.getDouble(rs.getObject("bullish_c_prem")));
-            v.setBearishCPrem(this.getDouble(rs.getObject("bearish_c_prem")));
-            v.setBearishPPrem(this.getDouble(rs.getObject("bearish_p_prem")));
-            v.setBullishPPrem(this.getDouble(rs.getObject("bullish_p_prem")));
-            v.setNetDelta(this.getDouble(rs.getObject("net_delta")));
-            v.setNetVega(this.getDouble(rs.getObject("net_vega")));
-            v.setBullishOnAsk(this.getDouble(rs.getObject("bullish_on_ask")));
-            v.setBearishOnAsk(this.getDouble(rs.getObject("bearish_on_ask")));
-            v.setVolatility20Day(this.getDouble(rs.getObject("volatility20day")));
-            v.setVolatility60Day(this.getDouble(rs.getObject("volatility60day")));
-            v.setVolatility120Day(this.getDouble(rs.getObject("volatility120day")));
-            v.setSplitAdjClose(this.getDouble(rs.getObject("split_adj_close")));
-            v.setSplitAdjMult(this.getDouble(rs.getObject("split_adj_mult")));
-            v.setAmex(this.getInteger(rs.getObject("amex")));
-            v.setArca(this.getInteger(rs.getObject("arca")));
-            v.setBxo(this.getInteger(rs.getObject("bxo")));
-            v.setBzx(this.getInteger(rs.getObject("bzx")));
-            v.setBox(this.getInteger(rs.getObject("box")));
-            v.setCboe(this.getInteger(rs.getObject("cboe")));
-            v.setC2(this.getInteger(rs.getObject("c2")));
-            v.setEdgx(this.getInteger(rs.getObject("edgx")));
-            v.setGem(this.getInteger(rs.getObject("gem")));
-            v.setIse(this.getInteger(rs.getObject("ise")));
-            v.setMerc(this.getInteger(rs.getObject("merc")));
-            v.setMiax(this.getInteger(rs.getObject("miax")));
-            v.setNom(this.getInteger(rs.getObject("nom")));
-            v.setPearl(this.getInteger(rs.getObject("pearl")));
-            v.setPhlx(this.getInteger(rs.getObject("phlx")));
-            return v;
+        final JdbcTemplate template = JdbcTemplateSource.getTemplate(false);
+        final Map<String, VolumeData> existing = new HashMap<>(list.size() * 2);
+        symbolsByDate.forEach((dateString, symbols) -> {
+            final List<String> symbolList = new ArrayList<>(symbols);
+            for (int i = 0; i < symbolList.size(); i += PREFETCH_CHUNK_SIZE) {
+                final List<String> chunk = symbolList.subList(i, Math.min(i + PREFETCH_CHUNK_SIZE, symbolList.size()));
+                final List<Object> params = new ArrayList<>(chunk.size() + 1);
+                params.add(dateString);
+                params.addAll(chunk);
+                template.query("select * from volume where date = ? and symbol in (" + this.getParamString(chunk) + ")",
+                  new VolumeDataRowMapper(), params.toArray(new Object[0]))
+                  .forEach(v -> existing.put(getVolumeKey(format.format(v.getDate()), v.getSymbol()), v));
+            }
+        });
+        return existing;
+    }
+
+    private static String getVolumeKey(String dateString, String symbol) {
+        return dateString + '|' + symbol.toUpperCase();
+    }
+
+    /**
+     * A loaded day snapshot and the rows written to it since, which are applied in one copy when the snapshot is next
+     * read, or once they outnumber its rows, rather than copying every column for each written row. Guarded by the
+     * snapshots map's lock.
+     */
+    private static final class CachedSnapshot {
+
+        private final long loadedAt;
+        private final List<VolumeData> pending = new ArrayList<>();
+        private VolumeSnapshot snapshot;
+
+        private CachedSnapshot(VolumeSnapshot snapshot, long loadedAt) {
+            this.snapshot = snapshot;
+            this.loadedAt = loadedAt;
         }
 
-        int getInteger(Object o) {
-            return Optional.ofNullable(o).map(Integer.class::cast).orElse(0);
+        private void update(List<VolumeData> rows) {
+            this.pending.addAll(rows);
+            if (this.pending.size() > this.snapshot.size())
+                this.getSnapshot();
         }
 
-        double getDouble(Object o) {
-            return Optional.ofNullable(o).map(Double.class::cast).orElse(0d);
+        private VolumeSnapshot getSnapshot() {
+            if (!this.pending.isEmpty()) {
+                this.snapshot = this.snapshot.withUpdates(this.pending);
+                this.pending.clear();
+            }
+            return this.snapshot;
+        }
+    }
+
+    /**
+     * Resolves its columns on the first row it maps, so use a new instance per query.
+     */
+    static final class VolumeDataRowMapper implements RowMapper<VolumeData> {
+
+        // read in this order by mapRow; SQL NULL maps to 0 through the primitive accessors
+        static final String[] COLUMNS = {
+          "id", "symbol", "date", "comments", "option_volume", "puts", "calls", "pct_adv", "tw_pct_adv", "adv",
+          "option_open_int", "volume_oi_pct", "spot", "spot_chg", "bullish_pct", "neutral_pct", "bearish_pct",
+          "put_bid_pct", "put_mid_pct", "put_ask_pct", "call_bid_pct", "call_mid_pct", "call_ask_pct", "atm_ivol",
+          "atm_ivol_chg", "oi_puts", "oi_calls", "avg_total_puts", "avg_total_calls", "time_weight", "volume",
+          "avg_volume", "close", "chg", "atm1", "atm2", "oi_puts_chg", "oi_calls_chg", "put_trades", "call_trades",
+          "put_prem", "call_prem", "bullish_c_prem", "bearish_c_prem", "bearish_p_prem", "bullish_p_prem", "net_delta",
+          "net_vega", "bullish_on_ask", "bearish_on_ask", "volatility20day", "volatility60day", "volatility120day",
+          "split_adj_close", "split_adj_mult", "amex", "arca", "bxo", "bzx", "box", "cboe", "c2", "edgx", "gem", "ise",
+          "merc", "miax", "nom", "pearl", "phlx"
+        };
+
+        private final ColumnIndexes columns = new ColumnIndexes(COLUMNS);
+
+        @Override
+        public VolumeData mapRow(ResultSet rs, int rowNum) throws SQLException {
+            final int[] c = this.columns.get(rs);
+            int i = 0;
+            final VolumeData v = new VolumeData();
+            v.setId(rs.getInt(c[i++]));
+            v.setSymbol(rs.getString(c[i++]));
+            v.setDate(rs.getDate(c[i++]));
+            v.setComments(rs.getString(c[i++]));
+            v.setOptionVolume(rs.getInt(c[i++]));
+            v.setPuts(rs.getInt(c[i++]));
+            v.setCalls(rs.getInt(c[i++]));
+            v.setPctAdv(rs.getDouble(c[i++]));
+            v.setTwPctAdv(rs.getDouble(c[i++]));
+            v.setAdv(rs.getInt(c[i++]));
+            v.setOptionOpenInt(rs.getInt(c[i++]));
+            v.setVolumeOiPct(rs.getDouble(c[i++]));
+            v.setSpot(rs.getDouble(c[i++]));
+            v.setSpotChg(rs.getDouble(c[i++]));
+            v.setBullishPct(rs.getDouble(c[i++]));
+            v.setNeutralPct(rs.getDouble(c[i++]));
+            v.setBearishPct(rs.getDouble(c[i++]));
+            v.setPutBidPct(rs.getDouble(c[i++]));
+            v.setPutMidPct(rs.getDouble(c[i++]));
+            v.setPutAskPct(rs.getDouble(c[i++]));
+            v.setCallBidPct(rs.getDouble(c[i++]));
+            v.setCallMidPct(rs.getDouble(c[i++]));
+            v.setCallAskPct(rs.getDouble(c[i++]));
+            v.setAtmIvol(rs.getDouble(c[i++]));
+            v.setAtmIvolChg(rs.getDouble(c[i++]));
+            v.setOiPuts(rs.getInt(c[i++]));
+            v.setOiCalls(rs.getInt(c[i++]));
+            v.setAvgTotalPuts(rs.getInt(c[i++]));
+            v.setAvgTotalCalls(rs.getInt(c[i++]));
+            v.setTimeWeight(rs.getDouble(c[i++]));
+            v.setVolume(rs.getDouble(c[i++]));
+            v.setAvgVolume(rs.getDouble(c[i++]));
+            v.setClose(rs.getDouble(c[i++]));
+            v.setChg(rs.getDouble(c[i++]));
+            v.setAtm1(rs.getDouble(c[i++]));
+            v.setAtm2(rs.getDouble(c[i++]));
+            v.setOiPutsChg(rs.getInt(c[i++]));
+            v.setOiCallsChg(rs.getInt(c[i++]));
+            v.setPutTrades(rs.getInt(c[i++]));
+            v.setCallTrades(rs.getInt(c[i++]));
+            v.setPutPrem(rs.getDouble(c[i++]));
+            v.setCallPrem(rs.getDouble(c[i++]));
+            v.setBullishCPrem(rs.getDouble(c[i++]));
+            v.setBearishCPrem(rs.getDouble(c[i++]));
+            v.setBearishPPrem(rs.getDouble(c[i++]));
+            v.setBullishPPrem(rs.getDouble(c[i++]));
+            v.setNetDelta(rs.getDouble(c[i++]));
+            v.setNetVega(rs.getDouble(c[i++]));
+            v.setBullishOnAsk(rs.getDouble(c[i++]));
+            v.setBearishOnAsk(rs.getDouble(c[i++]));
+            v.setVolatility20Day(rs.getDouble(c[i++]));
+            v.setVolatility60Day(rs.getDouble(c[i++]));
+            v.setVolatility120Day(rs.getDouble(c[i++]));
+            v.setSplitAdjClose(rs.getDouble(c[i++]));
+            v.setSplitAdjMult(rs.getDouble(c[i++]));
+            v.setAmex(rs.getInt(c[i++]));
+            v.setArca(rs.getInt(c[i++]));
+            v.setBxo(rs.getInt(c[i++]));
+            v.setBzx(rs.getInt(c[i++]));
+            v.setBox(rs.getInt(c[i++]));
+            v.setCboe(rs.getInt(c[i++]));
+            v.setC2(rs.getInt(c[i++]));
+            v.setEdgx(rs.getInt(c[i++]));
+            v.setGem(rs.getInt(c[i++]));
+            v.setIse(rs.getInt(c[i++]));
+            v.setMerc(rs.getInt(c[i++]));
+            v.setMiax(rs.getInt(c[i++]));
+            v.setNom(rs.getInt(c[i++]));
+            v.setPearl(rs.getInt(c[i++]));
+            v.setPhlx(rs.getInt(c[i++]));
+            return v;
         }
     }
 }
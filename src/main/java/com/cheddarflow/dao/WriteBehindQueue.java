@@ -0,0 +1,154 @@
+package com.cheddarflow.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue drained by a single writer thread that hands items to the batch writer in groups of up to
+ * {@code batchSize}. The batch writer completes each item's future, in order, with whether the item was written;
+ * futures it leaves incomplete fail with its exception. Batches never overlap, including the ones spilled on the
+ * caller thread.
+ */
+final class WriteBehindQueue<T> implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final BlockingQueue<Entry<T>> queue;
+    private final int batchSize;
+    private final Backpressure backpressure;
+    private final BiConsumer<List<T>, List<CompletableFuture<Boolean>>> batchWriter;
+    private final Thread writer;
+    // submit holds the read lock and close the write lock, so nothing is queued once the writer starts its last drain
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+    private final Object writeLock = new Object();
+    private volatile boolean running = true;
+
+    WriteBehindQueue(String name, int capacity, int batchSize, Backpressure backpressure,
+      BiConsumer<List<T>, List<CompletableFuture<Boolean>>> batchWriter) {
+        if (capacity <= 0 || batchSize <= 0)
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.backpressure = backpressure;
+        this.batchWriter = batchWriter;
+        this.writer = new Thread(this::drain, name + "-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    CompletableFuture<Boolean> submit(T item) {
+        this.submitLock.readLock().lock();
+        try {
+            if (!this.running)
+                throw new IllegalStateException("Write-behind queue is closed");
+            return this.enqueue(new Entry<>(item));
+        } finally {
+            this.submitLock.readLock().unlock();
+        }
+    }
+
+    private CompletableFuture<Boolean> enqueue(Entry<T> entry) {
+        switch (this.backpressure) {
+            case BLOCK:
+                try {
+                    this.queue.put(entry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    entry.future.completeExceptionally(e);
+                }
+                break;
+            case DROP:
+                if (!this.queue.offer(entry)) {
+                    entry.future.completeExceptionally(new RejectedExecutionException("Write-behind queue is full"));
+                }
+                break;
+            default:
+                if (!this.queue.offer(entry)) {
+                    this.write(List.of(entry));
+                }
+        }
+        return entry.future;
+    }
+
+    int size() {
+        return this.queue.size();
+    }
+
+    @Override
+    public void close() {
+        this.submitLock.writeLock().lock();
+        try {
+            this.running = false;
+        } finally {
+            this.submitLock.writeLock().unlock();
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // entries are only left behind if the writer or this thread was interrupted
+        final List<Entry<T>> rest = new ArrayList<>();
+        this.queue.drainTo(rest);
+        rest.forEach(entry -> entry.future.completeExceptionally(new RejectedExecutionException("Write-behind queue is closed")));
+    }
+
+    private void drain() {
+        final List<Entry<T>> batch = new ArrayList<>(this.batchSize);
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                final Entry<T> first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                this.queue.drainTo(batch, this.batchSize - 1);
+                this.write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry<T>> batch) {
+        final List<T> items = new ArrayList<>(batch.size());
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(batch.size());
+        batch.forEach(e -> {
+            items.add(e.item);
+            futures.add(e.future);
+        });
+        synchronized (this.writeLock) {
+            try {
+                this.batchWriter.accept(items, futures);
+            } catch (Exception e) {
+                this.logger.error("Could not write batch of {} records", batch.size(), e);
+                futures.forEach(future -> future.completeExceptionally(e));
+            }
+        }
+        futures.forEach(future -> future.completeExceptionally(new IllegalStateException("No result for record")));
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Entry(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.cheddarflow.dao.cache;
+
+import com.cheddarflow.dao.PowerAlertDAO;
+import com.cheddarflow.model.PowerAlert;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+public class CachingPowerAlertDAO implements PowerAlertDAO {
+
+    private final PowerAlertDAO delegate;
+    private final QueryCache<RangeKey, List<PowerAlert>> cache;
+    private volatile long rangeTtlMillis = TimeUnit.SECONDS.toMillis(30);
+
+    public CachingPowerAlertDAO(PowerAlertDAO delegate, long maxRows) {
+        this.delegate = delegate;
+        this.cache = new QueryCache<>("power_alerts", maxRows, List::size);
+    }
+
+    public QueryCache<?, ?> getCache() {
+        return this.cache;
+    }
+
+    public void setRangeTtl(long ttl, TimeUnit unit) {
+        this.rangeTtlMillis = unit.toMillis(ttl);
+    }
+
+    @Override
+    public List<PowerAlert> findBySymbolAndDateRange(String symbol, Date from, Date to, boolean paOnly, boolean rollback) {
+        return this.cache.get(new RangeKey("findBySymbolAndDateRange", from, to, symbol, rollback, paOnly),
+          this.rangeTtlMillis, () -> Collections.unmodifiableList(
+            this.delegate.findBySymbolAndDateRange(symbol, from, to, paOnly, rollback)));
+    }
+
+    @Override
+    public List<PowerAlert> findBySymbol(String symbol) {
+        return this.delegate.findBySymbol(symbol);
+    }
+
+    @Override
+    public Optional<PowerAlert> findBySymbolAndDate(String symbol, Date alertDate) {
+        return this.delegate.findBySymbolAndDate(symbol, alertDate);
+    }
+
+    @Override
+    public void save(PowerAlert powerAlert) {
+        this.delegate.save(powerAlert);
+        this.invalidate(List.of(powerAlert));
+    }
+
+    @Override
+    public void bulkInsert(List<PowerAlert> powerAlerts) {
+        this.delegate.bulkInsert(powerAlerts);
+        this.invalidate(powerAlerts);
+    }
+
+    @Override
+    public void bulkUpdate(List<PowerAlert> powerAlerts) {
+        this.delegate.bulkUpdate(powerAlerts);
+        this.invalidate(powerAlerts);
+    }
+
+    @Override
+    public void deleteBefore(Date cutoff) {
+        this.delegate.deleteBefore(cutoff);
+        this.cache.invalidateAll();
+    }
+
+    private void invalidate(List<PowerAlert> written) {
+        this.cache.invalidateIf(key -> key.isRollback()
+          || written.stream().anyMatch(pa -> key.covers(pa.getAlertDate(), pa.getSymbol())));
+    }
+}
@@ -0,0 +1,86 @@
+package com.cheddarflow.dao.cache;
+
+import com.cheddarflow.dao.TradesDAO;
+import com.cheddarflow.dao.dto.Page;
+import com.cheddarflow.model.MarketData;
+import com.cheddarflow.model.MarketDataInput;
+import com.cheddarflow.model.PutCallSummary;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+public class CachingTradesDAO implements TradesDAO {
+
+    private final TradesDAO delegate;
+    private final QueryCache<RangeKey, List<MarketData>> cache;
+    private volatile long rangeTtlMillis = TimeUnit.SECONDS.toMillis(5);
+
+    public CachingTradesDAO(TradesDAO delegate, long maxRows) {
+        this.delegate = delegate;
+        this.cache = new QueryCache<>("trades", maxRows, List::size);
+    }
+
+    public QueryCache<?, ?> getCache() {
+        return this.cache;
+    }
+
+    public void setRangeTtl(long ttl, TimeUnit unit) {
+        this.rangeTtlMillis = unit.toMillis(ttl);
+    }
+
+    @Override
+    public PutCallSummary getPutCallSummary(Date from, Date to, String symbolSearch) {
+        return this.delegate.getPutCallSummary(from, to, symbolSearch);
+    }
+
+    @Override
+    public MarketData getMarketData(Date date, int tradeid) {
+        return this.delegate.getMarketData(date, tradeid);
+    }
+
+    @Override
+    public List<MarketData> getMarketData(Date from, Date to, String symbol, int limit) {
+        return this.cache.get(new RangeKey("getMarketData", from, to, symbol, false, limit), this.rangeTtlMillis,
+          () -> Collections.unmodifiableList(this.delegate.getMarketData(from, to, symbol, limit)));
+    }
+
+    @Override
+    public Page<MarketData> getMarketDataPage(Date from, Date to, String symbol, int pageSize, String pageToken) {
+        return this.delegate.getMarketDataPage(from, to, symbol, pageSize, pageToken);
+    }
+
+    @Override
+    public int streamMarketData(Date from, Date to, String symbol, int limit, Predicate<MarketData> consumer) {
+        return this.delegate.streamMarketData(from, to, symbol, limit, consumer);
+    }
+
+    @Override
+    public boolean setMarketData(MarketDataInput in) {
+        final boolean inserted = this.delegate.setMarketData(in);
+        if (inserted)
+            this.invalidate(in);
+        return inserted;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> submitMarketData(MarketDataInput in) {
+        return this.delegate.submitMarketData(in).thenApply(inserted -> {
+            if (Boolean.TRUE.equals(inserted))
+                this.invalidate(in);
+            return inserted;
+        });
+    }
+
+    @Override
+    public long getMaxTimestamp() {
+        return this.delegate.getMaxTimestamp();
+    }
+
+    private void invalidate(MarketDataInput in) {
+        this.cache.invalidateIf(key -> key.covers(in.timestamp, in.symbol));
+    }
+}
@@ -0,0 +1,63 @@
+package com.cheddarflow.dao.cache;
+
+import com.cheddarflow.dao.VolumeDAO;
+import com.cheddarflow.dao.VolumeSnapshot;
+import com.cheddarflow.model.VolumeData;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CachingVolumeDAO implements VolumeDAO {
+
+    private final VolumeDAO delegate;
+    private final QueryCache<RangeKey, List<VolumeData>> cache;
+    private volatile long rangeTtlMillis = TimeUnit.SECONDS.toMillis(30);
+
+    public CachingVolumeDAO(VolumeDAO delegate, long maxRows) {
+        this.delegate = delegate;
+        this.cache = new QueryCache<>("volume", maxRows, List::size);
+    }
+
+    public QueryCache<?, ?> getCache() {
+        return this.cache;
+    }
+
+    public void setRangeTtl(long ttl, TimeUnit unit) {
+        this.rangeTtlMillis = unit.toMillis(ttl);
+    }
+
+    @Override
+    public VolumeData getVolumeData(Date d, String symbol) {
+        return this.delegate.getVolumeData(d, symbol);
+    }
+
+    @Override
+    public List<VolumeData> getVolumeData(Date from, Date to, boolean rollback) {
+        return this.cache.get(new RangeKey("getVolumeData", from, to, null, rollback), this.rangeTtlMillis,
+          () -> Collections.unmodifiableList(this.delegate.getVolumeData(from, to, rollback)));
+    }
+
+    @Override
+    public void setVolumeData(VolumeData in) {
+        this.delegate.setVolumeData(in);
+        this.invalidate(List.of(in));
+    }
+
+    @Override
+    public void persist(List<VolumeData> in) {
+        this.delegate.persist(in);
+        this.invalidate(in);
+    }
+
+    @Override
+    public VolumeSnapshot getVolumeSnapshot(Date date) {
+        return this.delegate.getVolumeSnapshot(date);
+    }
+
+    private void invalidate(List<VolumeData> written) {
+        this.cache.invalidateIf(key -> key.isRollback()
+          || written.stream().anyMatch(v -> key.covers(v.getDate(), v.getSymbol())));
+    }
+}
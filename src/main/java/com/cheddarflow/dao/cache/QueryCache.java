@@ -0,0 +1,161 @@
+package com.cheddarflow.dao.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-through cache with a per-call time to live and a total weight bound. Entries are kept in access order and
+ * the least recently used ones are evicted once the summed weight exceeds {@code maxWeight}. Loads run outside the
+ * lock, so concurrent misses on one key may both hit the delegate; exceptions from the loader are not cached, and
+ * neither are results of loads whose key matched an invalidation made while they ran, since they may predate the
+ * write behind it. Values are shared between callers and must not be modified.
+ */
+public class QueryCache<K, V> {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+    // loads in progress, checked by every invalidation so a load of a matching key does not cache its result
+    private final List<Load<K>> loads = new ArrayList<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public QueryCache(String name, long maxWeight, ToIntFunction<V> weigher) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key, long ttlMillis, Supplier<V> loader) {
+        final long now = System.currentTimeMillis();
+        final Load<K> load = new Load<>(key);
+        synchronized (this) {
+            final Entry<V> entry = this.entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                this.hits++;
+                return entry.value;
+            }
+            this.misses++;
+            this.loads.add(load);
+        }
+
+        final V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                this.loads.remove(load);
+            }
+            throw e;
+        }
+        final int entryWeight = value == null || ttlMillis <= 0 ? 0 : Math.max(1, this.weigher.applyAsInt(value));
+        synchronized (this) {
+            this.loads.remove(load);
+            if (entryWeight == 0 || load.stale)
+                return value;
+            final Entry<V> previous = this.entries.put(key, new Entry<>(value, entryWeight, now + ttlMillis));
+            if (previous != null)
+                this.weight -= previous.weight;
+            this.weight += entryWeight;
+            final Iterator<Map.Entry<K, Entry<V>>> i = this.entries.entrySet().iterator();
+            while (this.weight > this.maxWeight && i.hasNext()) {
+                final Map.Entry<K, Entry<V>> eldest = i.next();
+                this.weight -= eldest.getValue().weight;
+                this.evictions++;
+                i.remove();
+            }
+        }
+        return value;
+    }
+
+    public synchronized int invalidateIf(Predicate<K> predicate) {
+        for (Load<K> load : this.loads) {
+            if (predicate.test(load.key))
+                load.stale = true;
+        }
+        int removed = 0;
+        for (Iterator<Map.Entry<K, Entry<V>>> i = this.entries.entrySet().iterator(); i.hasNext(); ) {
+            final Map.Entry<K, Entry<V>> entry = i.next();
+            if (predicate.test(entry.getKey())) {
+                this.weight -= entry.getValue().weight;
+                i.remove();
+                removed++;
+            }
+        }
+        if (removed > 0)
+            this.logger.trace("Invalidated {} entries of {}", removed, this.name);
+        return removed;
+    }
+
+    public synchronized void invalidateAll() {
+        this.loads.forEach(load -> load.stale = true);
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return this.hits;
+    }
+
+    public synchronized long getMissCount() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return this.evictions;
+    }
+
+    public synchronized double getHitRatio() {
+        final long total = this.hits + this.misses;
+        return total == 0 ? 0d : (double)this.hits / total;
+    }
+
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    private static final class Load<K> {
+
+        private final K key;
+        private boolean stale;
+
+        private Load(K key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final int weight;
+        private final long expiresAt;
+
+        private Entry(V value, int weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cheddarflow.dao.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Normalized arguments of a range query: dates truncated to the second, the symbol list trimmed, upper-cased and
+ * sorted, and any remaining arguments kept as-is. Rollback queries may resolve to any recent day, so writes outside
+ * their range still invalidate them.
+ */
+final class RangeKey {
+
+    private final String method;
+    private final long from;
+    private final long to;
+    private final List<String> symbols;
+    private final boolean rollback;
+    private final List<Object> extra;
+
+    RangeKey(String method, Date from, Date to, String symbols, boolean rollback, Object... extra) {
+        this.method = method;
+        this.from = truncate(from);
+        this.to = truncate(from.equals(to) ? new Date(to.getTime() + TimeUnit.DAYS.toMillis(1)) : to);
+        this.symbols = symbols == null ? null : Arrays.stream(symbols.split(",")).map(String::trim)
+          .filter(s -> !s.isBlank()).map(String::toUpperCase).sorted().distinct().collect(Collectors.toList());
+        this.rollback = rollback;
+        this.extra = extra == null ? Collections.emptyList() : Arrays.asList(extra);
+    }
+
+    boolean covers(Date date, String symbol) {
+        final long time = date.getTime();
+        return time >= this.from && time <= this.to + TimeUnit.SECONDS.toMillis(1) && this.matches(symbol);
+    }
+
+    boolean matches(String symbol) {
+        return this.symbols == null || this.symbols.isEmpty() || symbol == null
+          || this.symbols.contains(symbol.trim().toUpperCase());
+    }
+
+    boolean isRollback() {
+        return this.rollback;
+    }
+
+    private static long truncate(Date date) {
+        return date.getTime() - Math.floorMod(date.getTime(), TimeUnit.SECONDS.toMillis(1));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RangeKey))
+            return false;
+        final RangeKey that = (RangeKey)o;
+        return this.from == that.from && this.to == that.to && this.rollback == that.rollback
+          && this.method.equals(that.method) && Objects.equals(this.symbols, that.symbols) && this.extra.equals(that.extra);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.method, this.from, this.to, this.symbols, this.rollback, this.extra);
+    }
+}
@@ -0,0 +1,48 @@
+package com.cheddarflow.dao.dto;
+
+import java.util.concurrent.TimeUnit;
+
+public class BulkWriteResult {
+
+    private final int chunks;
+    private final int rows;
+    private final int updated;
+    private final long elapsedNanos;
+
+    public BulkWriteResult(int chunks, int rows, int updated, long elapsedNanos) {
+        this.chunks = chunks;
+        this.rows = rows;
+        this.updated = updated;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getChunks() {
+        return this.chunks;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getUpdated() {
+        return this.updated;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+    }
+
+    public long getRowsPerSecond() {
+        return rate(this.rows, this.elapsedNanos);
+    }
+
+    public static long rate(int rows, long nanos) {
+        return nanos <= 0 ? 0 : rows * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return this.rows + " records in " + this.chunks + " chunks, " + this.getElapsedMillis() + " ms ("
+          + this.getRowsPerSecond() + " rows/sec)";
+    }
+}
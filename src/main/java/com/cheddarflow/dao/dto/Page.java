@@ -0,0 +1,30 @@
+package com.cheddarflow.dao.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Collections;
+import java.util.List;
+
+@JsonSerialize
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public Page(List<T> items, String nextPageToken) {
+        this.items = items == null ? Collections.emptyList() : items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return Collections.unmodifiableList(this.items);
+    }
+
+    public String getNextPageToken() {
+        return this.nextPageToken;
+    }
+
+    public boolean hasNext() {
+        return this.nextPageToken != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.cheddarflow.dao.event;
+
+import com.cheddarflow.model.MarketData;
+
+import java.util.Collections;
+import java.util.List;
+
+public class MarketDataUpdateEvent {
+
+    private final List<MarketData> data;
+
+    public MarketDataUpdateEvent(List<MarketData> data) {
+        this.data = data == null ? Collections.emptyList() : data;
+    }
+
+    public List<MarketData> getData() {
+        return Collections.unmodifiableList(this.data);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cheddarflow.dao.event;
+
+import java.util.UUID;
+
+public class SectorUpdateEvent {
+
+    /** Identifies events posted by this JVM, so subscribers can skip updates they already applied. */
+    public static final String LOCAL_ORIGIN = UUID.randomUUID().toString();
+
+    private final String symbol;
+    private final String subsector;
+    private final String origin;
+
+    public SectorUpdateEvent(String symbol, String subsector) {
+        this(symbol, subsector, LOCAL_ORIGIN);
+    }
+
+    public SectorUpdateEvent(String symbol, String subsector, String origin) {
+        this.symbol = symbol;
+        this.subsector = subsector;
+        this.origin = origin;
+    }
+
+    public String getSymbol() {
+        return this.symbol;
+    }
+
+    public String getSubsector() {
+        return this.subsector;
+    }
+
+    public String getOrigin() {
+        return this.origin;
+    }
+
+    public boolean isLocal() {
+        return LOCAL_ORIGIN.equals(this.origin);
+    }
+}
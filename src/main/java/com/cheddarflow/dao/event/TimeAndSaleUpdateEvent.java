@@ -0,0 +1,19 @@
+package com.cheddarflow.dao.event;
+
+import com.cheddarflow.model.DXTimeAndSale;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TimeAndSaleUpdateEvent {
+
+    private final List<DXTimeAndSale> data;
+
+    public TimeAndSaleUpdateEvent(List<DXTimeAndSale> data) {
+        this.data = data == null ? Collections.emptyList() : data;
+    }
+
+    public List<DXTimeAndSale> getData() {
+        return Collections.unmodifiableList(this.data);
+    }
+}
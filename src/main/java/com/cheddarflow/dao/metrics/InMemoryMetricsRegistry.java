@@ -0,0 +1,41 @@
+package com.cheddarflow.dao.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every histogram and counter in memory for reading back, by an exporter or in tests.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Histogram histogram(String name) {
+        return this.histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    @Override
+    public LongAdder counter(String name) {
+        return this.counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.histograms));
+    }
+
+    public Map<String, Long> getCounters() {
+        final Map<String, Long> values = new TreeMap<>();
+        this.counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    public void reset() {
+        this.histograms.values().forEach(Histogram::reset);
+        this.counters.values().forEach(LongAdder::reset);
+    }
+}
@@ -0,0 +1,104 @@
+package com.cheddarflow.dao.metrics;
+
+import com.cheddarflow.dao.dto.Page;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Decorates a DAO interface with per-method metrics, named {@code <interface>.<method>.<metric>}:
+ * <ul>
+ *     <li>{@code latency}: call duration in nanoseconds</li>
+ *     <li>{@code rows}: size of a returned collection or page</li>
+ *     <li>{@code batch}: size of the first collection argument</li>
+ *     <li>{@code errors}: calls that threw</li>
+ * </ul>
+ * Overloaded methods get their parameter count appended to the method name.
+ */
+public final class InstrumentedDAO implements InvocationHandler {
+
+    private final Object delegate;
+    private final Map<Method, MethodMetrics> metrics = new HashMap<>();
+
+    private InstrumentedDAO(Class<?> type, Object delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        final Map<String, Long> overloads = Arrays.stream(type.getMethods())
+          .collect(Collectors.groupingBy(Method::getName, Collectors.counting()));
+        for (Method method : type.getMethods()) {
+            final String name = type.getSimpleName() + "." + method.getName()
+              + (overloads.get(method.getName()) > 1 ? "/" + method.getParameterCount() : "");
+            this.metrics.put(method, new MethodMetrics(name, registry));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <D> D wrap(Class<D> type, D delegate, MetricsRegistry registry) {
+        return (D)Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+          new InstrumentedDAO(type, delegate, registry));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final MethodMetrics m = this.metrics.get(method);
+        if (m == null)
+            return this.invokeDelegate(method, args);
+
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof Collection) {
+                    m.batch.record(((Collection<?>)arg).size());
+                    break;
+                }
+            }
+        }
+
+        final long start = System.nanoTime();
+        try {
+            final Object result = this.invokeDelegate(method, args);
+            m.latency.record(System.nanoTime() - start);
+            if (result instanceof Collection) {
+                m.rows.record(((Collection<?>)result).size());
+            } else if (result instanceof Page) {
+                m.rows.record(((Page<?>)result).getItems().size());
+            }
+            return result;
+        } catch (Throwable t) {
+            m.latency.record(System.nanoTime() - start);
+            m.errors.increment();
+            throw t;
+        }
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(this.delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class MethodMetrics {
+
+        private final Histogram latency;
+        private final Histogram rows;
+        private final Histogram batch;
+        private final LongAdder errors;
+
+        MethodMetrics(String name, MetricsRegistry registry) {
+            final Function<String, String> metric = suffix -> name + "." + suffix;
+            this.latency = registry.histogram(metric.apply("latency"));
+            this.rows = registry.histogram(metric.apply("rows"));
+            this.batch = registry.histogram(metric.apply("batch"));
+            this.errors = registry.counter(metric.apply("errors"));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.cheddarflow.dao.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where DAO metrics are recorded. Implementations return the same instance for a name on every call and must be
+ * safe for concurrent use; callers may hold on to what they get back.
+ */
+public interface MetricsRegistry {
+
+    /** Discards everything. */
+    MetricsRegistry NOOP = new MetricsRegistry() {
+        @Override
+        public Histogram histogram(String name) {
+            return new Histogram();
+        }
+
+        @Override
+        public LongAdder counter(String name) {
+            return new LongAdder();
+        }
+    };
+
+    Histogram histogram(String name);
+
+    LongAdder counter(String name);
+}